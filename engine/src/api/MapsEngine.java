@@ -2,6 +2,8 @@ package api;
 
 import api.transpool.SingleMapEngineDTO;
 import api.transpool.SingleMapEngine;
+import api.transpool.map.MapSizeLimits;
+import api.transpool.time.component.TimeDay;
 import api.transpool.trip.offer.component.TripOffer;
 import api.transpool.trip.request.component.MatchedTripRequest;
 import api.transpool.trip.request.component.TripRequest;
@@ -15,14 +17,48 @@ import java.util.Map;
 public interface MapsEngine {
     Map<String, SingleMapEngine> getMaps();
 
-    void addMap(SingleMapEngine map);
+    /**
+     * Adds the map if no map with its name exists or is being loaded.
+     * @return - true if the map was added.
+     */
+    boolean addMap(SingleMapEngine map);
+
+    /**
+     * Reserves a name for a map while it is loaded, so no other map can take it.
+     * @return - true if the name was reserved, false if a map with the name exists or is being loaded.
+     */
+    boolean reserveMapName(String mapName);
+
+    /**
+     * Adds a map whose name was reserved, and frees the reservation.
+     */
+    void publishMap(SingleMapEngine map);
+
+    /**
+     * Frees a reserved name whose map was not published, such as a map which failed to load.
+     */
+    void releaseMapName(String mapName);
 
     SingleMapEngine getMap(String mapName);
 
+    /**
+     * Every map has its own clock, so actions which aren't made on any map, such as a credit deposit, are dated by the
+     * clock furthest ahead.
+     * @return - The latest current time of all the maps, the start of the first day if there are none.
+     */
+    TimeDay getLatestTime();
+
     boolean isMapExists(String mapName);
 
     Collection<SingleMapEngineDTO> getAllMapEnginesDetails();
 
+    /**
+     * @return - The smallest and largest width and length of the maps loaded from now on.
+     */
+    MapSizeLimits getMapSizeLimits();
+
+    void setMapSizeLimits(MapSizeLimits mapSizeLimits);
+
     void addNewTripRequest(TripRequest request, TransPoolRider rider, String mapName);
 
     void addNewTripOffer(TripOffer offer, TransPoolDriver driver, String mapName);
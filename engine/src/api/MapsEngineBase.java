@@ -2,6 +2,8 @@ package api;
 
 import api.transpool.SingleMapEngineDTO;
 import api.transpool.SingleMapEngine;
+import api.transpool.map.MapSizeLimits;
+import api.transpool.time.component.TimeDay;
 import api.transpool.trip.offer.component.TripOffer;
 import api.transpool.trip.request.component.MatchedTripRequest;
 import api.transpool.trip.request.component.TripRequest;
@@ -9,24 +11,77 @@ import api.transpool.user.account.TransPoolDriver;
 import api.transpool.user.account.TransPoolRider;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 
 /**
  * Holds and manages all maps in the system.
+ * The maps are kept in a concurrent map, so they are read without locking. A map is loaded in two steps - its name is
+ * reserved first, then the map is published once it was built - so maps with different names are loaded fully in
+ * parallel, and only the publishing is atomic.
  */
 public class MapsEngineBase implements MapsEngine {
 
     //Name to map map.
     private Map<String, SingleMapEngine> maps;
+    //The names of the maps being loaded.
+    private Set<String> reservedMapNames;
+    private volatile MapSizeLimits mapSizeLimits;
 
     public MapsEngineBase() {
-        maps = new HashMap<>();
+        maps = new ConcurrentHashMap<>();
+        reservedMapNames = ConcurrentHashMap.newKeySet();
+        mapSizeLimits = MapSizeLimits.DEFAULT;
     }
 
     @Override
-    public synchronized void addMap(SingleMapEngine map) {
+    public MapSizeLimits getMapSizeLimits() {
+        return mapSizeLimits;
+    }
+
+    @Override
+    public void setMapSizeLimits(MapSizeLimits mapSizeLimits) {
+        this.mapSizeLimits = mapSizeLimits;
+    }
+
+    @Override
+    public boolean addMap(SingleMapEngine map) {
+        if (!reserveMapName(map.getMapName())) {
+            return false;
+        }
+        publishMap(map);
+        return true;
+    }
+
+    @Override
+    public boolean reserveMapName(String mapName) {
+        if (maps.containsKey(mapName) || !reservedMapNames.add(mapName)) {
+            return false;
+        }
+
+        //The map may have been published between the two checks, by whoever reserved the name before.
+        if (maps.containsKey(mapName)) {
+            reservedMapNames.remove(mapName);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void publishMap(SingleMapEngine map) {
+        if (!reservedMapNames.contains(map.getMapName())) {
+            throw new IllegalStateException("The name " + map.getMapName() + " was not reserved.");
+        }
         maps.put(map.getMapName(), map);
+        reservedMapNames.remove(map.getMapName());
+    }
+
+    @Override
+    public void releaseMapName(String mapName) {
+        if (!maps.containsKey(mapName)) {
+            reservedMapNames.remove(mapName);
+        }
     }
 
     @Override
@@ -34,13 +89,23 @@ public class MapsEngineBase implements MapsEngine {
         return maps.get(mapName);
     }
 
+    @Override
+    public TimeDay getLatestTime() {
+        return TimeDay.fromMinutes(maps
+                .values()
+                .stream()
+                .mapToInt(SingleMapEngine::getCurrentMinute)
+                .max()
+                .orElse(0));
+    }
+
     @Override
     public boolean isMapExists(String mapName) {
         return maps.containsKey(mapName);
     }
 
     @Override
-    public synchronized Map<String, SingleMapEngine> getMaps() {
+    public Map<String, SingleMapEngine> getMaps() {
         return Collections.unmodifiableMap(maps);
     }
 
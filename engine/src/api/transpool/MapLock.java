@@ -0,0 +1,153 @@
+package api.transpool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * The lock of a single map.
+ * Changes to the map - new trip offers, requests and matches, and moving the time - hold the lock exclusively.
+ * Small reads - counts, copies and details - first run optimistically without taking the lock at all, and only run
+ * again under the read lock if the map was changed while they ran. They never block each other, and only wait for a
+ * writer when they actually raced with one.
+ * Searches always run under the read lock (see readLocked()). They walk the trip offers graph, which writers change in
+ * place, and fill the graph's own caches as they go, so they can't run alongside a writer and be thrown away after.
+ * A thread which already holds the lock runs nested reads and writes directly, so locked methods may call each other.
+ * Keeps how often and how long the lock was held, see MapLockStatistics.
+ */
+public class MapLock {
+
+    private final StampedLock lock;
+    private final ThreadLocal<int[]> holdCount;
+
+    private final LongAdder numOfOptimisticReads;
+    private final LongAdder numOfLockedReads;
+    private final LongAdder numOfWrites;
+    private final LongAdder totalReadHoldNanos;
+    private final LongAdder totalWriteHoldNanos;
+    private final AtomicLong maxReadHoldNanos;
+    private final AtomicLong maxWriteHoldNanos;
+
+    public MapLock() {
+        this.lock = new StampedLock();
+        this.holdCount = ThreadLocal.withInitial(() -> new int[1]);
+        this.numOfOptimisticReads = new LongAdder();
+        this.numOfLockedReads = new LongAdder();
+        this.numOfWrites = new LongAdder();
+        this.totalReadHoldNanos = new LongAdder();
+        this.totalWriteHoldNanos = new LongAdder();
+        this.maxReadHoldNanos = new AtomicLong();
+        this.maxWriteHoldNanos = new AtomicLong();
+    }
+
+    /**
+     * Runs a small read of the map. The reader may run twice - once optimistically and once under the read lock - so
+     * it must not change anything, and its result is only used if no write ran alongside it.
+     * @param reader - The read to run.
+     * @return - The result of the read.
+     */
+    public <T> T read(Supplier<T> reader) {
+        if (isHeldByCurrentThread()) {
+            return reader.get();
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    numOfOptimisticReads.increment();
+                    return result;
+                }
+            } catch (RuntimeException | Error e) {
+                //A read which raced with a write may fail on data changing under it, it is run again under the lock.
+                if (lock.validate(stamp)) {
+                    numOfOptimisticReads.increment();
+                    throw e;
+                }
+            }
+        }
+
+        return readUnderLock(reader);
+    }
+
+    /**
+     * Runs a read of the map under the read lock, alongside other reads but never alongside a change. The reader may
+     * change what is guarded by its own synchronization, such as the caches of a search.
+     * @param reader - The read to run.
+     * @return - The result of the read.
+     */
+    public <T> T readLocked(Supplier<T> reader) {
+        if (isHeldByCurrentThread()) {
+            return reader.get();
+        }
+        return readUnderLock(reader);
+    }
+
+    private <T> T readUnderLock(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        long startNanos = System.nanoTime();
+        holdCount.get()[0]++;
+        try {
+            return reader.get();
+        } finally {
+            holdCount.get()[0]--;
+            long heldNanos = System.nanoTime() - startNanos;
+            lock.unlockRead(stamp);
+            numOfLockedReads.increment();
+            totalReadHoldNanos.add(heldNanos);
+            maxReadHoldNanos.accumulateAndGet(heldNanos, Math::max);
+        }
+    }
+
+    /**
+     * Runs a change to the map while holding the lock exclusively.
+     * @param writer - The change to make.
+     * @return - The result of the change.
+     */
+    public <T> T write(Supplier<T> writer) {
+        if (isHeldByCurrentThread()) {
+            if (!lock.isWriteLocked()) {
+                throw new IllegalStateException("Can't change the map while reading it.");
+            }
+            return writer.get();
+        }
+
+        long stamp = lock.writeLock();
+        long startNanos = System.nanoTime();
+        holdCount.get()[0]++;
+        try {
+            return writer.get();
+        } finally {
+            holdCount.get()[0]--;
+            long heldNanos = System.nanoTime() - startNanos;
+            lock.unlockWrite(stamp);
+            numOfWrites.increment();
+            totalWriteHoldNanos.add(heldNanos);
+            maxWriteHoldNanos.accumulateAndGet(heldNanos, Math::max);
+        }
+    }
+
+    public void write(Runnable writer) {
+        write(() -> {
+            writer.run();
+            return null;
+        });
+    }
+
+    public MapLockStatistics getStatistics() {
+        return new MapLockStatistics(
+                numOfOptimisticReads.sum(),
+                numOfLockedReads.sum(),
+                numOfWrites.sum(),
+                totalReadHoldNanos.sum(),
+                totalWriteHoldNanos.sum(),
+                maxReadHoldNanos.get(),
+                maxWriteHoldNanos.get());
+    }
+
+    private boolean isHeldByCurrentThread() {
+        return holdCount.get()[0] > 0;
+    }
+}
@@ -0,0 +1,67 @@
+package api.transpool;
+
+/**
+ * How often and how long a map's lock was held, since the map was created.
+ * Optimistic reads never hold the lock, a read only takes it after racing with a write.
+ */
+public class MapLockStatistics {
+
+    private long numOfOptimisticReads;
+    private long numOfLockedReads;
+    private long numOfWrites;
+    private long totalReadHoldNanos;
+    private long totalWriteHoldNanos;
+    private long maxReadHoldNanos;
+    private long maxWriteHoldNanos;
+
+    public MapLockStatistics(long numOfOptimisticReads, long numOfLockedReads, long numOfWrites,
+                             long totalReadHoldNanos, long totalWriteHoldNanos,
+                             long maxReadHoldNanos, long maxWriteHoldNanos) {
+        this.numOfOptimisticReads = numOfOptimisticReads;
+        this.numOfLockedReads = numOfLockedReads;
+        this.numOfWrites = numOfWrites;
+        this.totalReadHoldNanos = totalReadHoldNanos;
+        this.totalWriteHoldNanos = totalWriteHoldNanos;
+        this.maxReadHoldNanos = maxReadHoldNanos;
+        this.maxWriteHoldNanos = maxWriteHoldNanos;
+    }
+
+    public long getNumOfOptimisticReads() {
+        return numOfOptimisticReads;
+    }
+
+    /**
+     * @return - The number of reads which raced with a write, and were run again under the read lock.
+     */
+    public long getNumOfLockedReads() {
+        return numOfLockedReads;
+    }
+
+    public long getNumOfWrites() {
+        return numOfWrites;
+    }
+
+    public long getTotalReadHoldNanos() {
+        return totalReadHoldNanos;
+    }
+
+    public long getTotalWriteHoldNanos() {
+        return totalWriteHoldNanos;
+    }
+
+    public long getMaxReadHoldNanos() {
+        return maxReadHoldNanos;
+    }
+
+    public long getMaxWriteHoldNanos() {
+        return maxWriteHoldNanos;
+    }
+
+    public long getAverageReadHoldNanos() {
+        return numOfLockedReads == 0 ? 0 : totalReadHoldNanos / numOfLockedReads;
+    }
+
+    public long getAverageWriteHoldNanos() {
+        return numOfWrites == 0 ? 0 : totalWriteHoldNanos / numOfWrites;
+    }
+}
@@ -3,13 +3,22 @@ package api.transpool;
 import api.transpool.map.BasicMap;
 import api.transpool.time.TimeEngine;
 import api.transpool.time.component.Updatable;
+import api.transpool.trip.hold.SeatHoldsEngine;
 import api.transpool.trip.matching.MatchingEngine;
 import api.transpool.trip.offer.TripOffersEngine;
 import api.transpool.trip.request.TripRequestsEngine;
 
-public interface SingleMapEngine extends Updatable, BasicMap, TripOffersEngine, TripRequestsEngine, TimeEngine, MatchingEngine {
+public interface SingleMapEngine extends Updatable, BasicMap, TripOffersEngine, TripRequestsEngine, TimeEngine, MatchingEngine,
+        SeatHoldsEngine {
     String getMapName();
     String getUploaderName();
     SingleMapEngineDTO getMapEngineDetails();
+    MapLockStatistics getLockStatistics();
     BasicMap getMap();
+
+    /**
+     * @return - A copy of the map to run a simulation on (see MapSimulation), at the map's current time, with the
+     * seats taken on its trip offers so far. Changes to the copy don't reach the map.
+     */
+    SingleMapEngine createSimulationCopy();
 }
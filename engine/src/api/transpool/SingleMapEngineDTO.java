@@ -10,6 +10,11 @@ public class SingleMapEngineDTO {
     private int numOfMatchedRequests;
     private int numOfStops;
     private int numOfPaths;
+    private int numOfRouteCacheHits;
+    private int numOfRouteCacheMisses;
+    private int numOfStoredOccurrences;
+    private long storedOccurrencesSizeInBytes;
+    private MapLockStatistics lockStatistics;
 
     public SingleMapEngineDTO(SingleMapEngine transpoolMap) {
         this.mapName = transpoolMap.getMapName();
@@ -19,6 +24,11 @@ public class SingleMapEngineDTO {
         this.numOfMatchedRequests = transpoolMap.getNumOfMatchedRequests();
         this.numOfStops = transpoolMap.getNumberOfStops();
         this.numOfPaths = transpoolMap.getNumberOfPaths();
+        this.numOfRouteCacheHits = transpoolMap.getNumOfRouteCacheHits();
+        this.numOfRouteCacheMisses = transpoolMap.getNumOfRouteCacheMisses();
+        this.numOfStoredOccurrences = transpoolMap.getNumOfStoredOccurrences();
+        this.storedOccurrencesSizeInBytes = transpoolMap.getStoredOccurrencesSizeInBytes();
+        this.lockStatistics = transpoolMap.getLockStatistics();
     }
 
     public String getMapName() {
@@ -48,4 +58,24 @@ public class SingleMapEngineDTO {
     public int getNumOfPaths() {
         return numOfPaths;
     }
+
+    public int getNumOfRouteCacheHits() {
+        return numOfRouteCacheHits;
+    }
+
+    public int getNumOfRouteCacheMisses() {
+        return numOfRouteCacheMisses;
+    }
+
+    public int getNumOfStoredOccurrences() {
+        return numOfStoredOccurrences;
+    }
+
+    public long getStoredOccurrencesSizeInBytes() {
+        return storedOccurrencesSizeInBytes;
+    }
+
+    public MapLockStatistics getLockStatistics() {
+        return lockStatistics;
+    }
 }
@@ -12,10 +12,17 @@ import api.transpool.time.component.TimeDay;
 import api.transpool.time.TimeEngineBase;
 import api.transpool.time.component.TimeInterval;
 import api.transpool.time.component.Updatable;
+import api.transpool.trip.hold.SeatHoldsEngineBase;
+import api.transpool.trip.hold.component.SeatHold;
+import api.transpool.trip.matching.component.MatchingAlgorithm;
+import api.transpool.trip.matching.component.RouteQuery;
+import api.transpool.trip.matching.component.RouteQueryCache;
 import api.transpool.trip.matching.component.TripOffersGraph;
 import api.transpool.trip.offer.TripOffersEngineBase;
 import api.transpool.trip.offer.component.TripOfferDTO;
 import api.transpool.trip.offer.component.TripOfferPart;
+import api.transpool.trip.offer.component.SeatReservation;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
 import api.transpool.trip.matching.component.PossibleRoute;
 import api.transpool.trip.matching.component.PossibleRoutesList;
 import api.transpool.trip.offer.component.TripOffer;
@@ -24,10 +31,12 @@ import api.transpool.trip.request.component.MatchedTripRequest;
 import api.transpool.trip.request.component.MatchedTripRequestDTO;
 import api.transpool.trip.request.component.TripRequest;
 import api.transpool.trip.request.component.TripRequestDTO;
+import api.transpool.user.account.TransPoolDriver;
 import exception.parser.NoResultsFoundException;
 import exception.parser.TransPoolDataException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
@@ -38,6 +47,8 @@ import java.util.stream.Collectors;
  * The class containing the data for a single map. An implementation of SingleMapEngine.
  * Contains engines for the trip offers in the map, trip requests in the map and the time. Also
  * contains the map itself (stops adn paths.)
+ * Every read and change of the offers, requests and time goes through the map's lock (see MapLock). The stops and
+ * paths never change once the map is loaded, so they are read without it.
  */
 
 public class TransPoolMap implements SingleMapEngine {
@@ -49,19 +60,28 @@ public class TransPoolMap implements SingleMapEngine {
     private TripOffersEngineBase tripOffersEngine;
     private TripRequestsEngineBase tripRequestsEngine;
     private TimeEngineBase timeEngine;
+    private SeatHoldsEngineBase seatHoldsEngine;
+    private MapLock lock;
 
     private List<Updatable> updatables;
 
     public TransPoolMap(String mapName, String uploaderName, TransPool JAXBData) throws TransPoolDataException {
-        Stop.resetIDGenerator();
+        this(mapName, uploaderName, new BasicMapData(JAXBData.getMapDescriptor()));
+    }
 
+    /**
+     * @param map - The stops and paths of the map, as read from its file (see StreamingMapParser).
+     */
+    public TransPoolMap(String mapName, String uploaderName, BasicMapData map) {
         this.mapName = mapName;
         this.uploaderName = uploaderName;
 
-        this.map = new BasicMapData(JAXBData.getMapDescriptor());
+        this.map = map;
         this.tripRequestsEngine = new TripRequestsEngineBase();
-        this.tripOffersEngine = new TripOffersEngineBase(map);
         this.timeEngine = new TimeEngineBase();
+        this.tripOffersEngine = new TripOffersEngineBase(map, timeEngine);
+        this.seatHoldsEngine = new SeatHoldsEngineBase(tripOffersEngine.getTripOffersGraph());
+        this.lock = new MapLock();
 
         this.updatables = new ArrayList<>();
         initUpdatables();
@@ -73,8 +93,13 @@ public class TransPoolMap implements SingleMapEngine {
 
     //Basic Components-------------------------------------------------------------//
     @Override
-    public synchronized SingleMapEngineDTO getMapEngineDetails() {
-        return new SingleMapEngineDTO(this);
+    public SingleMapEngineDTO getMapEngineDetails() {
+        return lock.read(() -> new SingleMapEngineDTO(this));
+    }
+
+    @Override
+    public MapLockStatistics getLockStatistics() {
+        return lock.getStatistics();
     }
 
     @Override
@@ -89,7 +114,7 @@ public class TransPoolMap implements SingleMapEngine {
 
     @Override
     public void update() {
-        updatables.forEach(Updatable::update);
+        lock.write(() -> updatables.forEach(Updatable::update));
     }
 
     @Override
@@ -97,49 +122,103 @@ public class TransPoolMap implements SingleMapEngine {
         return map;
     }
 
+    /**
+     * The copy shares the stops and paths, which never change, and has a copy of every trip offer. Each driver is
+     * copied too, so the riders booked on the copy's offers don't reach the real drivers. The requests, matches and
+     * seat holds of the map aren't copied, only the seats they took.
+     */
+    @Override
+    public SingleMapEngine createSimulationCopy() {
+        return lock.readLocked(() -> {
+            TransPoolMap copy = new TransPoolMap(mapName, uploaderName, map);
+            copy.advanceTime(timeEngine.getCurrentMinute());
+
+            Map<Integer, TransPoolDriver> driverCopies = new HashMap<>();
+            for (TripOffer tripOffer : tripOffersEngine.getAllTripOffers().values()) {
+                TransPoolDriver driver = tripOffer.getTransPoolDriver();
+                TransPoolDriver driverCopy = driverCopies.computeIfAbsent(driver.getID(),
+                        ID -> new TransPoolDriver(ID, driver.getUsername()));
+                copy.addTripOffer(new TripOffer(tripOffer, driverCopy));
+            }
+            return copy;
+        });
+    }
+
     //TripOfferEngine-------------------------------------------------------------//
 
 
     @Override
-    public synchronized List<TripOfferDTO> getTripOffersDetails() {
-        return tripOffersEngine.getTripOffersDetails();
+    public List<TripOfferDTO> getTripOffersDetails() {
+        return lock.read(tripOffersEngine::getTripOffersDetails);
     }
 
     @Override
-    public synchronized void addTripOffer(TripOffer tripOffer) {
-        tripOffersEngine.addTripOffer(tripOffer);
+    public void addTripOffer(TripOffer tripOffer) {
+        lock.write(() -> tripOffersEngine.addTripOffer(tripOffer));
     }
 
+    /**
+     * @return - A copy of the trip offers, which can be read while the map changes.
+     */
     @Override
-    public synchronized Map<Integer, TripOffer> getAllTripOffers() {
-        return tripOffersEngine.getAllTripOffers();
+    public Map<Integer, TripOffer> getAllTripOffers() {
+        return lock.read(() -> new HashMap<>(tripOffersEngine.getAllTripOffers()));
+    }
+
+    @Override
+    public int createTripOfferID() {
+        return tripOffersEngine.createTripOfferID();
     }
 
     @Override
     public int getNumOfTripOffers() {
-        return tripOffersEngine.getNumOfTripOffers();
+        return lock.read(tripOffersEngine::getNumOfTripOffers);
     }
 
     @Override
     public TripOffer getTripOffer(int ID) {
-        return tripOffersEngine.getTripOffer(ID);
+        return lock.read(() -> tripOffersEngine.getTripOffer(ID));
+    }
+
+    @Override
+    public int getNumOfStoredOccurrences() {
+        return lock.read(tripOffersEngine::getNumOfStoredOccurrences);
+    }
+
+    @Override
+    public int getNextTimelineEventMinute(int minute, int untilMinute) {
+        //Looking ahead may put more events on the timeline.
+        return lock.write(() -> tripOffersEngine.getNextTimelineEventMinute(minute, untilMinute));
+    }
+
+    @Override
+    public int getNumOfTimelineEventsAt(int minute) {
+        return lock.write(() -> tripOffersEngine.getNumOfTimelineEventsAt(minute));
+    }
+
+    @Override
+    public long getStoredOccurrencesSizeInBytes() {
+        return lock.read(tripOffersEngine::getStoredOccurrencesSizeInBytes);
     }
 
     @Override
     public List<TripOffer> getCurrentOffers() {
-        return tripOffersEngine.getCurrentOffers();
+        return lock.read(() -> new ArrayList<>(tripOffersEngine.getCurrentOffers()));
     }
 
     @Override
     public List<TripOfferPart> getCurrentTripOfferParts() {
-        return tripOffersEngine.getCurrentTripOfferParts();
+        return lock.read(() -> new ArrayList<>(tripOffersEngine.getCurrentTripOfferParts()));
     }
 
     @Override
     public TripOfferPart getTripOfferPart(int tripOfferID, int subTripOfferID) {
-        return tripOffersEngine.getTripOfferPart(tripOfferID, subTripOfferID);
+        return lock.read(() -> tripOffersEngine.getTripOfferPart(tripOfferID, subTripOfferID));
     }
 
+    /**
+     * @return - The graph itself. Searching it directly is not guarded by the map's lock, getAllPossibleRoutes() is.
+     */
     @Override
     public TripOffersGraph getTripOffersGraph() {
         return tripOffersEngine.getTripOffersGraph();
@@ -148,99 +227,296 @@ public class TransPoolMap implements SingleMapEngine {
     //TripRequestEngine------------------------------------------------------------//
 
     @Override
-    public synchronized List<TripRequestDTO> getTripRequestsDetails() {
-        return tripRequestsEngine.getTripRequestsDetails();
+    public List<TripRequestDTO> getTripRequestsDetails() {
+        return lock.read(tripRequestsEngine::getTripRequestsDetails);
     }
 
     @Override
     public List<MatchedTripRequestDTO> getMatchedTripsDetails() {
-        return tripRequestsEngine.getMatchedTripsDetails();
+        return lock.read(tripRequestsEngine::getMatchedTripsDetails);
     }
 
     @Override
-    public synchronized void addTripRequest(TripRequest tripRequest) {
-        tripRequestsEngine.addTripRequest(tripRequest);
+    public void addTripRequest(TripRequest tripRequest) {
+        lock.write(() -> tripRequestsEngine.addTripRequest(tripRequest));
+    }
+
+    @Override
+    public int createTripRequestID() {
+        return tripRequestsEngine.createTripRequestID();
     }
 
     @Override
     public TripRequest getTripRequest(int TripRequestID) {
-        return tripRequestsEngine.getTripRequest(TripRequestID);
+        return lock.read(() -> tripRequestsEngine.getTripRequest(TripRequestID));
     }
 
     @Override
-    public synchronized void deleteTripRequest(TripRequest requestToDelete) {
-        tripRequestsEngine.deleteTripRequest(requestToDelete);
+    public void deleteTripRequest(TripRequest requestToDelete) {
+        lock.write(() -> tripRequestsEngine.deleteTripRequest(requestToDelete));
     }
 
+    /**
+     * @return - A copy of the trip requests, which can be read while the map changes.
+     */
     @Override
-    public synchronized Map<Integer, TripRequest> getAllTripRequests() {
-        return tripRequestsEngine.getAllTripRequests();
+    public Map<Integer, TripRequest> getAllTripRequests() {
+        return lock.read(() -> new HashMap<>(tripRequestsEngine.getAllTripRequests()));
     }
 
     @Override
     public MatchedTripRequest getMatchedTripRequest(int MatchedTripRequestID) {
-        return tripRequestsEngine.getMatchedTripRequest(MatchedTripRequestID);
+        return lock.read(() -> tripRequestsEngine.getMatchedTripRequest(MatchedTripRequestID));
     }
 
     @Override
-    public synchronized void addMatchedRequest(MatchedTripRequest matchedTripRequest) {
-        tripRequestsEngine.addMatchedRequest(matchedTripRequest);
+    public void addMatchedRequest(MatchedTripRequest matchedTripRequest) {
+        lock.write(() -> {
+            tripRequestsEngine.addMatchedRequest(matchedTripRequest);
+            getTripOffersGraph().getRouteQueryCache().invalidate(matchedTripRequest.getRoute());
+        });
     }
 
+    /**
+     * @return - A copy of the matched requests, which can be read while the map changes.
+     */
     @Override
-    public synchronized Map<Integer, MatchedTripRequest> getAllMatchedTripRequests() {
-        return tripRequestsEngine.getAllMatchedTripRequests();
+    public Map<Integer, MatchedTripRequest> getAllMatchedTripRequests() {
+        return lock.read(() -> new HashMap<>(tripRequestsEngine.getAllMatchedTripRequests()));
     }
 
     @Override
     public int getNumOfTripRequests() {
-        return tripRequestsEngine.getNumOfTripRequests();
+        return lock.read(tripRequestsEngine::getNumOfTripRequests);
     }
 
     @Override
     public int getNumOfMatchedRequests() {
-        return tripRequestsEngine.getNumOfMatchedRequests();
+        return lock.read(tripRequestsEngine::getNumOfMatchedRequests);
     }
 
     //Matching Engine-----------------------------------------------------------------------//
 
     /**
-     * Gets the possible routes from the TripOfferMap, and filters all routes which are not relevant by
-     * departure or arrival time. Also filters all rides that are not continuous if the rider asked for continuous rides.
+     * Finds routes for the trip request using the default matching algorithm - the earliest arrival search.
      * @param tripRequestID - The ID of the trip request to match
      * @param maximumMatches - The maximum number of matches.
      * @return - PossibleRoutesList - a list of all possible routes.
      */
     @Override
     public PossibleRoutesList getAllPossibleRoutes(int tripRequestID, int maximumMatches) throws NoResultsFoundException {
-        TripRequest requestToMatch = getTripRequest(tripRequestID);
-        Predicate<PossibleRoute> timeMatchPredicate = possibleRoute -> {
-            if (requestToMatch.isTimeOfArrival()) {
-                return possibleRoute.getArrivalTime().equals(requestToMatch.getRequestTime());
-            } else {
-                return possibleRoute.getDepartureTime().equals(requestToMatch.getRequestTime());
-            }
-        };
+        return getAllPossibleRoutes(tripRequestID, maximumMatches, MatchingAlgorithm.EARLIEST_ARRIVAL);
+    }
+
+    /**
+     * Finds routes for the trip request using the chosen matching algorithm.
+     * Every matcher skips occurrences that are already full, so only routes the rider can book are found.
+     * The routes of recent requests are kept in the route query cache, so the same query is only searched again once
+     * a new trip offer or a booking could change its routes.
+     * Requests by time of arrival are always matched by searching backwards from the destination, which finds the
+     * route that departs the latest and still arrives on time.
+     * The search runs under the map's read lock: alongside other searches, but never alongside a change to the map.
+     * @param tripRequestID - The ID of the trip request to match
+     * @param maximumMatches - The maximum number of matches.
+     * @param algorithm - The algorithm to find the routes with.
+     * @return - PossibleRoutesList - a list of all possible routes.
+     */
+    @Override
+    public PossibleRoutesList getAllPossibleRoutes(int tripRequestID, int maximumMatches, MatchingAlgorithm algorithm)
+            throws NoResultsFoundException {
+        seatHoldsEngine.releaseExpiredSeatHolds();
+        PossibleRoutesList possibleRoutes = lock.readLocked(() -> getPossibleRoutes(tripRequestID, maximumMatches, algorithm));
+
+        if (possibleRoutes.isEmpty()) {
+            throw new NoResultsFoundException();
+        } else {
+            return possibleRoutes;
+        }
+    }
+
+    private PossibleRoutesList getPossibleRoutes(int tripRequestID, int maximumMatches, MatchingAlgorithm algorithm) {
+        TripRequest requestToMatch = tripRequestsEngine.getTripRequest(tripRequestID);
+        RouteQueryCache routeQueryCache = getTripOffersGraph().getRouteQueryCache();
+        RouteQuery query = new RouteQuery(
+                requestToMatch.getSourceStop().getID(),
+                requestToMatch.getDestinationStop().getID(),
+                requestToMatch.getRequestTime().toMinutes(),
+                requestToMatch.isTimeOfArrival(),
+                requestToMatch.isContinuous(),
+                algorithm,
+                maximumMatches);
+
+        PossibleRoutesList possibleRoutes = routeQueryCache.get(query);
+        if (possibleRoutes == null) {
+            long cacheGeneration = routeQueryCache.getGeneration();
+            possibleRoutes = findPossibleRoutes(requestToMatch, maximumMatches, algorithm);
+            routeQueryCache.put(query, possibleRoutes, cacheGeneration);
+        }
+        return possibleRoutes;
+    }
+
+    private PossibleRoutesList findPossibleRoutes(TripRequest requestToMatch, int maximumMatches,
+                                                  MatchingAlgorithm algorithm) {
+        PossibleRoutesList possibleRoutes;
+
+        if (requestToMatch.isTimeOfArrival()) {
+            possibleRoutes = getLatestDepartureRoute(requestToMatch);
+        } else if (algorithm == MatchingAlgorithm.EARLIEST_ARRIVAL) {
+            possibleRoutes = getEarliestArrivalRoute(requestToMatch);
+        } else if (algorithm == MatchingAlgorithm.CONNECTION_SCAN) {
+            possibleRoutes = getConnectionScanRoute(requestToMatch);
+        } else if (algorithm == MatchingAlgorithm.BEST_TRADE_OFFS) {
+            possibleRoutes = getBestTradeOffRoutes(requestToMatch, maximumMatches);
+        } else {
+            possibleRoutes = getAllPossibleRoutes(requestToMatch, maximumMatches);
+        }
+        return possibleRoutes;
+    }
+
+    @Override
+    public int getNumOfRouteCacheHits() {
+        return getTripOffersGraph().getRouteQueryCache().getNumOfHits();
+    }
+
+    @Override
+    public int getNumOfRouteCacheMisses() {
+        return getTripOffersGraph().getRouteQueryCache().getNumOfMisses();
+    }
+
+    /**
+     * Gets the possible routes from the TripOfferMap. Routes which are not relevant by departure time, and routes which
+     * are not continuous if the rider asked for continuous rides, are cut off inside the traversal as soon as their
+     * first part shows it. The traversal stops once maximumMatches routes were found, and runs in parallel on big maps.
+     */
+    private PossibleRoutesList getAllPossibleRoutes(TripRequest requestToMatch, int maximumMatches) {
+        int requestMinute = requestToMatch.getRequestTime().toMinutes();
+        Predicate<PossibleRoute> timeMatchPredicate = possibleRoute ->
+                possibleRoute.getDepartureMinute() == requestMinute;
         Predicate<PossibleRoute> continuousRidePredicate = possibleRoute ->
                 !requestToMatch.isContinuous() || possibleRoute.isContinuous();
 
-        PossibleRoutesList possibleRoutes = getTripOffersGraph()
+        return getTripOffersGraph()
                 .getAllPossibleRoutes(
                         requestToMatch.getSourceStop(),
                         requestToMatch.getDestinationStop(),
-                        requestToMatch.getRequestTime())
+                        requestToMatch.getRequestTime(),
+                        timeMatchPredicate.and(continuousRidePredicate),
+                        maximumMatches,
+                        TripOfferPartOccurrence.SEATS_PER_RIDER);
+    }
+
+    private PossibleRoutesList getBestTradeOffRoutes(TripRequest requestToMatch, int maximumMatches) {
+        return getTripOffersGraph()
+                .getParetoOptimalRoutes(
+                        requestToMatch.getSourceStop(),
+                        requestToMatch.getDestinationStop(),
+                        requestToMatch.getRequestTime(),
+                        requestToMatch.isContinuous(),
+                        TripOfferPartOccurrence.SEATS_PER_RIDER)
                 .stream()
-                .filter(timeMatchPredicate)
-                .filter(continuousRidePredicate)
                 .limit(maximumMatches)
                 .collect(Collectors.toCollection(PossibleRoutesList::new));
+    }
 
-        if (possibleRoutes.isEmpty()) {
-            throw new NoResultsFoundException();
-        } else {
-            return possibleRoutes;
+    private PossibleRoutesList getLatestDepartureRoute(TripRequest requestToMatch) {
+        PossibleRoutesList possibleRoutes = new PossibleRoutesList();
+        PossibleRoute latestRoute = getTripOffersGraph()
+                .getLatestDepartureRoute(
+                        requestToMatch.getSourceStop(),
+                        requestToMatch.getDestinationStop(),
+                        requestToMatch.getRequestTime(),
+                        requestToMatch.isContinuous(),
+                        TripOfferPartOccurrence.SEATS_PER_RIDER);
+
+        if (latestRoute != null) {
+            possibleRoutes.add(latestRoute);
+        }
+        return possibleRoutes;
+    }
+
+    /**
+     * The connection scan only keeps the earliest arrival at each stop regardless of the driver, so continuous
+     * requests are matched by the earliest arrival search, which gives the same route.
+     */
+    private PossibleRoutesList getConnectionScanRoute(TripRequest requestToMatch) {
+        if (requestToMatch.isContinuous()) {
+            return getEarliestArrivalRoute(requestToMatch);
         }
 
+        PossibleRoutesList possibleRoutes = new PossibleRoutesList();
+        PossibleRoute earliestRoute = getTripOffersGraph()
+                .getConnectionScanRoute(
+                        requestToMatch.getSourceStop(),
+                        requestToMatch.getDestinationStop(),
+                        requestToMatch.getRequestTime(),
+                        TripOfferPartOccurrence.SEATS_PER_RIDER);
+
+        if (earliestRoute != null) {
+            possibleRoutes.add(earliestRoute);
+        }
+        return possibleRoutes;
+    }
+
+    private PossibleRoutesList getEarliestArrivalRoute(TripRequest requestToMatch) {
+        PossibleRoutesList possibleRoutes = new PossibleRoutesList();
+        PossibleRoute earliestRoute = getTripOffersGraph()
+                .getEarliestArrivalRoute(
+                        requestToMatch.getSourceStop(),
+                        requestToMatch.getDestinationStop(),
+                        requestToMatch.getRequestTime(),
+                        requestToMatch.isContinuous(),
+                        TripOfferPartOccurrence.SEATS_PER_RIDER);
+
+        if (earliestRoute != null) {
+            possibleRoutes.add(earliestRoute);
+        }
+        return possibleRoutes;
+    }
+
+    //SeatHoldsEngine-----------------------------------------------------------------------//
+
+    /**
+     * Seats are held with compare-and-set on the occurrences (see SeatReservation), like bookings, so holds don't take
+     * the map's lock.
+     */
+    @Override
+    public SeatHold holdSeats(List<PossibleRoute> routes) {
+        return seatHoldsEngine.holdSeats(routes);
+    }
+
+    @Override
+    public SeatReservation claimSeatHold(SeatHold hold, PossibleRoute chosenRoute) {
+        return seatHoldsEngine.claimSeatHold(hold, chosenRoute);
+    }
+
+    @Override
+    public void releaseSeatHold(SeatHold hold) {
+        seatHoldsEngine.releaseSeatHold(hold);
+    }
+
+    @Override
+    public void releaseSeats(SeatReservation reservation) {
+        seatHoldsEngine.releaseSeats(reservation);
+    }
+
+    @Override
+    public void releaseExpiredSeatHolds() {
+        seatHoldsEngine.releaseExpiredSeatHolds();
+    }
+
+    @Override
+    public int getNumOfSeatHolds() {
+        return seatHoldsEngine.getNumOfSeatHolds();
+    }
+
+    @Override
+    public long getSeatHoldTimeToLiveMillis() {
+        return seatHoldsEngine.getSeatHoldTimeToLiveMillis();
+    }
+
+    @Override
+    public void setSeatHoldTimeToLiveMillis(long timeToLiveMillis) {
+        seatHoldsEngine.setSeatHoldTimeToLiveMillis(timeToLiveMillis);
     }
 
     //Map-----------------------------------------------------------------------------------//
@@ -279,6 +555,11 @@ public class TransPoolMap implements SingleMapEngine {
         return map.getStop(stopName);
     }
 
+    @Override
+    public Stop getStop(int x, int y) {
+        return map.getStop(x, y);
+    }
+
     @Override
     public int getNumberOfStops() {
         return map.getNumberOfStops();
@@ -323,17 +604,32 @@ public class TransPoolMap implements SingleMapEngine {
 
     @Override
     public void incrementTime(TimeInterval interval) {
-        timeEngine.incrementTime(interval, updatables);
+        lock.write(() -> timeEngine.incrementTime(interval, updatables));
     }
 
     @Override
     public void decrementTime(TimeInterval interval) {
-        timeEngine.decrementTime(interval, updatables);
+        lock.write(() -> timeEngine.decrementTime(interval, updatables));
     }
 
     @Override
     public TimeDay getCurrentTime() {
-        return TimeEngineBase.currentTime;
+        return timeEngine.getCurrentTime();
+    }
+
+    @Override
+    public int getCurrentMinute() {
+        return timeEngine.getCurrentMinute();
+    }
+
+    @Override
+    public void advanceTime(int minutes) {
+        lock.write(() -> timeEngine.advanceTime(minutes, updatables));
+    }
+
+    @Override
+    public void advanceTime(int minutes, List<Updatable> updatables) {
+        lock.write(() -> timeEngine.advanceTime(minutes, updatables));
     }
 
     @Override
@@ -343,12 +639,12 @@ public class TransPoolMap implements SingleMapEngine {
 
     @Override
     public void incrementTime(TimeInterval interval, List<Updatable> updatables) {
-        timeEngine.incrementTime(interval, updatables);
+        lock.write(() -> timeEngine.incrementTime(interval, updatables));
     }
 
     @Override
     public void decrementTime(TimeInterval interval, List<Updatable> updatables) {
-        timeEngine.decrementTime(interval, updatables);
+        lock.write(() -> timeEngine.decrementTime(interval, updatables));
     }
 
 }
@@ -0,0 +1,34 @@
+package api.transpool.id;
+
+/**
+ * Hands out the IDs of one map (or engine), from blocks taken from an IDSpace.
+ * Each allocator has its own lock, so maps create their offers and requests without waiting for each other.
+ */
+public class IDAllocator {
+
+    private IDSpace space;
+    private int blockSize;
+    private int step;
+
+    private int nextID;
+    private int numOfIDsLeft;
+
+    IDAllocator(IDSpace space, int blockSize, int step) {
+        this.space = space;
+        this.blockSize = blockSize;
+        this.step = step;
+        this.numOfIDsLeft = 0;
+    }
+
+    public synchronized int nextID() {
+        if (numOfIDsLeft == 0) {
+            nextID = space.takeBlock(blockSize);
+            numOfIDsLeft = blockSize;
+        }
+
+        int ID = nextID;
+        nextID += step;
+        numOfIDsLeft--;
+        return ID;
+    }
+}
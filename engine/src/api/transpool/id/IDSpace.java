@@ -0,0 +1,37 @@
+package api.transpool.id;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The range of IDs of one kind of object, such as trip offers, shared by everyone who creates them.
+ * The space is never handed out an ID at a time - each map (or engine) gets its own IDAllocator, which takes blocks of
+ * IDs from the space as it needs them. IDs stay unique across maps, while allocators only meet on the space once per
+ * block.
+ */
+public class IDSpace {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private AtomicInteger nextBlockStart;
+    private int step;
+
+    /**
+     * @param firstID - The first ID in the space.
+     * @param step - The difference between consecutive IDs.
+     */
+    public IDSpace(int firstID, int step) {
+        this.nextBlockStart = new AtomicInteger(firstID);
+        this.step = step;
+    }
+
+    public IDAllocator createAllocator() {
+        return new IDAllocator(this, BLOCK_SIZE, step);
+    }
+
+    /**
+     * @return - The first ID of a new block of numOfIDs IDs.
+     */
+    int takeBlock(int numOfIDs) {
+        return nextBlockStart.getAndAdd(numOfIDs * step);
+    }
+}
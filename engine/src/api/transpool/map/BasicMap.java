@@ -18,6 +18,7 @@ public interface BasicMap {
     List<Stop> getAllStopsAsList();
     List<String> getAllStopNamesAsList();
     Stop getStop(String stopName);
+    Stop getStop(int x, int y);
     int getNumberOfStops();
 
     List<Path> getAllPaths();
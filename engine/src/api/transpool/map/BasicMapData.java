@@ -10,91 +10,136 @@ import exception.parser.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * The map.
- * Contains a list of stops, a list of paths, and a matrix containing the stops' positions on the map.
+ * Contains a list of stops, a list of paths, and an index of the stops by their positions on the map.
+ * The paths are also indexed by their source and destination, by the stops' IDs and by the stops' names, so finding
+ * a path or checking a new path for duplicates doesn't go over all of them.
  */
 public class BasicMapData implements BasicMap {
 
-    private final static int MIN_MAP_SIZE = 6;
-    private final static int MAX_MAP_SIZE = 100;
-
     protected int width;
     protected int length;
-    protected MapMatrix mapMatrix;
+    protected StopCoordinatesIndex stopCoordinatesIndex;
 
     protected java.util.Map<String, Stop> allStops;
     protected List<Path> allPaths;
+    //The key of a path is made of its source and destination stop IDs (see getPairKey).
+    protected java.util.Map<Long, Path> pathsByStopIDs;
+    //Source stop name -> destination stop name -> path.
+    protected java.util.Map<String, java.util.Map<String, Path>> pathsByStopNames;
 
     /**
-     * Constructor for creating a map out of the JAXB generated classes.
+     * Constructor for creating a map out of the JAXB generated classes, within the default size limits.
      * @param JAXBMap - JAXB Generated map.
      * @throws TransPoolDataException - Thrown if there's a problem with the data inside the TP data file.
      */
     public BasicMapData(MapDescriptor JAXBMap) throws TransPoolDataException {
+        this(JAXBMap, MapSizeLimits.DEFAULT);
+    }
+
+    /**
+     * Constructor for creating a map out of the JAXB generated classes.
+     * @param JAXBMap - JAXB Generated map.
+     * @param sizeLimits - The smallest and largest width and length allowed.
+     * @throws TransPoolDataException - Thrown if there's a problem with the data inside the TP data file.
+     */
+    public BasicMapData(MapDescriptor JAXBMap, MapSizeLimits sizeLimits) throws TransPoolDataException {
+        this(JAXBMap.getMapBoundries().getWidth(), JAXBMap.getMapBoundries().getLength(), sizeLimits);
+
+        for (api.generated.Stop JAXBStop : JAXBMap.getStops().getStop()) {
+            addStop(JAXBStop);
+        }
+        for (api.generated.Path JAXBPath : JAXBMap.getPaths().getPath()) {
+            addPath(JAXBPath);
+        }
+    }
+
+    /**
+     * Constructor for an empty map with the given dimensions, filled with addStop() and addPath() while the map file
+     * is read (see StreamingMapParser).
+     * @param sizeLimits - The smallest and largest width and length allowed.
+     * @throws MapDimensionsException - Thrown if the dimensions are out of the allowed range.
+     */
+    BasicMapData(int width, int length, MapSizeLimits sizeLimits) throws MapDimensionsException {
         allStops = new HashMap<>();
         allPaths = new ArrayList<>();
-        setWidth(JAXBMap.getMapBoundries().getWidth());
-        setLength(JAXBMap.getMapBoundries().getLength());
-
-        initAllStops(JAXBMap);
-        initAllPaths(JAXBMap);
-        mapMatrix = new MapMatrix(JAXBMap);
+        pathsByStopIDs = new HashMap<>();
+        pathsByStopNames = new HashMap<>();
+        setWidth(width, sizeLimits);
+        setLength(length, sizeLimits);
+        stopCoordinatesIndex = new StopCoordinatesIndex();
     }
 
     /**
-     * Initializer for creating a map of stops from JAXB generated stops list.
-     * The function checks if the stop already exists, if so an StopNameDuplicationException is thrown,
-     * otherwise the stop is added to the hashmap.
-     * @param JAXBMap - The map containing the stops.
-     * @throws StopNameDuplicationException - thrown if there is a duplication stop.
+     * Adds a stop from a JAXB generated stop.
+     * The stops are numbered in the order they are added, so every map's stops get the IDs from 0, without sharing a
+     * counter with the maps loaded at the same time.
+     * @param JAXBStop - The JAXB generated stop.
+     * @throws StopNameDuplicationException - Thrown if there is already a stop with the same name.
+     * @throws StopOutOfBoundsException - Thrown if the stop is outside the map.
+     * @throws StopCoordinatesDuplicationException - Thrown if there is already a stop in the same coordinates.
      */
-    private void initAllStops(MapDescriptor JAXBMap) throws StopNameDuplicationException {
-        List<api.generated.Stop> JAXBStopsList = JAXBMap.getStops().getStop();
-        for(api.generated.Stop stop : JAXBStopsList) {
-            if (allStops.containsKey(stop.getName())) {
-                throw new StopNameDuplicationException(stop.getName());
-            }
-            allStops.put(stop.getName(), new Stop(stop));
+    void addStop(api.generated.Stop JAXBStop) throws StopNameDuplicationException, StopOutOfBoundsException,
+            StopCoordinatesDuplicationException {
+        if (allStops.containsKey(JAXBStop.getName())) {
+            throw new StopNameDuplicationException(JAXBStop.getName());
         }
+        Stop stop = new Stop(allStops.size(), JAXBStop);
+        stopCoordinatesIndex.addStop(stop);
+        allStops.put(JAXBStop.getName(), stop);
     }
 
     /**
-     * Initializer for creating a list of paths from JAXB generated path classes.
-     * The function checks if the path exists, or if there is a duplicated path. If so, an exception is thrown,
-     * otherwise the path is added to allPaths.
-     * @param JAXBMap - The JAXB generated path.
+     * Adds a path from a JAXB generated path, and the path in the other direction if it's a 2-way path.
+     * Both of the path's stops must already be in the map. A path is a duplicate if there's already a path between
+     * its stops, in either direction.
+     * @param JAXBPath - The JAXB generated path.
      * @throws PathDoesNotExistException - If the path between two stops does not exist
      * @throws PathDuplicationException - If there is a duplicate path already in the map.
      */
-    private void initAllPaths(MapDescriptor JAXBMap) throws PathDuplicationException, PathDoesNotExistException {
-        List<api.generated.Path> JAXBPathList = JAXBMap.getPaths().getPath();
-        for (api.generated.Path JAXBPath : JAXBPathList) {
-            Path transpoolPath = new Path(allStops, JAXBPath);
-            if (allPaths.contains(transpoolPath)) {
-                throw new PathDuplicationException(transpoolPath.getSourceName(), transpoolPath.getDestinationName());
-            }
-            if (!JAXBPath.isOneWay()) {
-                Path swappedPath = new Path(transpoolPath);
-                swappedPath.swapDirection();
-                allPaths.add(swappedPath);
-            }
-            allPaths.add(transpoolPath);
+    void addPath(api.generated.Path JAXBPath) throws PathDuplicationException, PathDoesNotExistException {
+        Path transpoolPath = new Path(allStops, JAXBPath);
+        int sourceID = transpoolPath.getSourceStop().getID();
+        int destinationID = transpoolPath.getDestinationStop().getID();
+        if (pathsByStopIDs.containsKey(getPairKey(sourceID, destinationID))
+                || pathsByStopIDs.containsKey(getPairKey(destinationID, sourceID))) {
+            throw new PathDuplicationException(transpoolPath.getSourceName(), transpoolPath.getDestinationName());
+        }
+        if (!JAXBPath.isOneWay()) {
+            Path swappedPath = new Path(transpoolPath);
+            swappedPath.swapDirection();
+            indexPath(swappedPath);
         }
+        indexPath(transpoolPath);
     }
 
-    private void setWidth(int width) throws MapDimensionsException {
-        if (width < MIN_MAP_SIZE || width > MAX_MAP_SIZE) {
+    private void indexPath(Path path) {
+        allPaths.add(path);
+        pathsByStopIDs.put(getPairKey(path.getSourceStop().getID(), path.getDestinationStop().getID()), path);
+        pathsByStopNames
+                .computeIfAbsent(path.getSourceName(), sourceName -> new HashMap<>())
+                .put(path.getDestinationName(), path);
+    }
+
+    /**
+     * @return - A hash key made of two ints, such as a path's stop IDs or a stop's coordinates.
+     */
+    private static long getPairKey(int first, int second) {
+        return ((long) first << Integer.SIZE) | (second & 0xFFFFFFFFL);
+    }
+
+    private void setWidth(int width, MapSizeLimits sizeLimits) throws MapDimensionsException {
+        if (!sizeLimits.isAllowed(width)) {
             throw new MapDimensionsException();
         }
         this.width = width;
     }
 
-    private void setLength(int length) throws MapDimensionsException {
-        if (length > MAX_MAP_SIZE || length < MIN_MAP_SIZE) {
+    private void setLength(int length, MapSizeLimits sizeLimits) throws MapDimensionsException {
+        if (!sizeLimits.isAllowed(length)) {
             throw new MapDimensionsException();
         }
         this.length = length;
@@ -108,36 +153,23 @@ public class BasicMapData implements BasicMap {
      */
     @Override
     public Path getPath(Stop source, Stop destination) {
-        Predicate<Path> sourceDestinationMatchPredicate = p ->
-                p.getDestinationStop().equals(destination) && p.getSourceStop().equals(source);
-
-        return allPaths
-                .stream()
-                .filter(sourceDestinationMatchPredicate)
-                .findFirst()
-                .orElse(null);
+        Path path = pathsByStopIDs.get(getPairKey(source.getID(), destination.getID()));
+        //Stops of another map may share the IDs.
+        if (path == null || !path.getSourceStop().equals(source) || !path.getDestinationStop().equals(destination)) {
+            return null;
+        }
+        return path;
     }
 
     @Override
     public Path getPath(String source, String destination) {
-        Predicate<Path> sourceDestinationMatchPredicate = p ->
-                p.getDestinationStop().getName().equals(destination) && p.getSourceStop().getName().equals(source);
-
-        return allPaths
-                .stream()
-                .filter(sourceDestinationMatchPredicate)
-                .findFirst()
-                .orElse(null);
+        java.util.Map<String, Path> pathsFromSource = pathsByStopNames.get(source);
+        return pathsFromSource == null ? null : pathsFromSource.get(destination);
     }
 
     @Override
     public boolean containsPath(String source, String destination) {
-        for (Path path : allPaths) {
-            if (path.getSourceName().equals(source) && path.getDestinationName().equals(destination)) {
-                return true;
-            }
-        }
-        return false;
+        return getPath(source, destination) != null;
     }
 
     @Override
@@ -155,6 +187,11 @@ public class BasicMapData implements BasicMap {
         return width;
     }
 
+    @Override
+    public Stop getStop(int x, int y) {
+        return stopCoordinatesIndex.getStop(x, y);
+    }
+
     @Override
     public boolean containsStop(String stopName) {
         return allStops.containsKey(stopName);
@@ -218,33 +255,37 @@ public class BasicMapData implements BasicMap {
                 .collect(Collectors.toList());
     }
 
-    public MapMatrix getMapMatrix() {
-        return mapMatrix;
+    public StopCoordinatesIndex getStopCoordinatesIndex() {
+        return stopCoordinatesIndex;
     }
 
     /**
-     * 2 Dimensional array of strings containing the name of the stop in each coordinate.
+     * The stops by their coordinates, in a hash map keyed by the coordinates, so the index takes memory for the stops
+     * only, however large the map is.
      */
-    public class MapMatrix {
-        private String[][] mapMatrix = new String[BasicMapData.MAX_MAP_SIZE][BasicMapData.MAX_MAP_SIZE];
-
-        public MapMatrix(MapDescriptor JAXBMap) throws StopOutOfBoundsException, StopCoordinatesDuplicationException {
-            List<api.generated.Stop> JAXBStopsList = JAXBMap.getStops().getStop();
-            for (api.generated.Stop stop : JAXBStopsList) {
-                int x = stop.getX();
-                int y = stop.getY();
-                if (x > width || y > length) {
-                    throw new StopOutOfBoundsException(stop.getName());
-                }
-                if (mapMatrix[y][x] != null) {
-                    throw new StopCoordinatesDuplicationException(x, y);
-                }
-                mapMatrix[y][x] = stop.getName();
+    public class StopCoordinatesIndex {
+        private java.util.Map<Long, Stop> stopsByCoordinates = new HashMap<>();
+
+        private void addStop(Stop stop) throws StopOutOfBoundsException, StopCoordinatesDuplicationException {
+            int x = stop.getX();
+            int y = stop.getY();
+            if (x < 0 || y < 0 || x > width || y > length) {
+                throw new StopOutOfBoundsException(stop.getName());
+            }
+            if (stopsByCoordinates.putIfAbsent(getPairKey(x, y), stop) != null) {
+                throw new StopCoordinatesDuplicationException(x, y);
             }
         }
 
-        public String[][] getMapMatrix() {
-            return mapMatrix;
+        /**
+         * @return - The stop in the coordinates, null if there's none.
+         */
+        public Stop getStop(int x, int y) {
+            return stopsByCoordinates.get(getPairKey(x, y));
+        }
+
+        public int size() {
+            return stopsByCoordinates.size();
         }
     }
 }
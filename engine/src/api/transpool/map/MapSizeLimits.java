@@ -0,0 +1,41 @@
+package api.transpool.map;
+
+/**
+ * The smallest and largest width and length a map may have.
+ */
+public class MapSizeLimits {
+
+    public static final MapSizeLimits DEFAULT = new MapSizeLimits(6, 100);
+
+    private final int minSize;
+    private final int maxSize;
+
+    /**
+     * @param minSize - The smallest width and length allowed, at least 1.
+     * @param maxSize - The largest width and length allowed, at least minSize.
+     */
+    public MapSizeLimits(int minSize, int maxSize) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid map size limits: " + minSize + " to " + maxSize + ".");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    public boolean isAllowed(int size) {
+        return size >= minSize && size <= maxSize;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return minSize + " to " + maxSize;
+    }
+}
@@ -0,0 +1,173 @@
+package api.transpool.map;
+
+import exception.parser.TransPoolDataException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * Reads a TransPool map file with a StAX stream reader, adding the stops and paths to the map as their elements are
+ * read, instead of unmarshalling the whole file into the JAXB generated classes first. Only one stop or path element
+ * is held at a time, so the memory used on top of the map itself doesn't grow with the file.
+ * The planned trips in the file aren't part of the map, so their elements are skipped.
+ */
+public class StreamingMapParser {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        //Map files never need a DTD, and external entities would let an uploaded file read other files.
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Reads a map within the default size limits.
+     * @param file - The contents of the map file.
+     * @return - The map in the file.
+     * @throws XMLStreamException - Thrown if the file isn't well formed XML, or doesn't follow the TransPool schema.
+     * @throws TransPoolDataException - Thrown if there's a problem with the data inside the file.
+     */
+    public static BasicMapData parse(InputStream file) throws XMLStreamException, TransPoolDataException {
+        return parse(file, MapSizeLimits.DEFAULT);
+    }
+
+    /**
+     * @param file - The contents of the map file.
+     * @param sizeLimits - The smallest and largest width and length allowed.
+     * @return - The map in the file.
+     * @throws XMLStreamException - Thrown if the file isn't well formed XML, or doesn't follow the TransPool schema.
+     * @throws TransPoolDataException - Thrown if there's a problem with the data inside the file.
+     */
+    public static BasicMapData parse(InputStream file, MapSizeLimits sizeLimits) throws XMLStreamException,
+            TransPoolDataException {
+        XMLStreamReader reader;
+        //The factory isn't guaranteed to be thread safe, the readers it creates are used by one thread each.
+        synchronized (INPUT_FACTORY) {
+            reader = INPUT_FACTORY.createXMLStreamReader(file);
+        }
+
+        try {
+            BasicMapData map = null;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "MapBoundries":
+                        if (map != null) {
+                            throw new XMLStreamException("The map boundries appear more than once.",
+                                    reader.getLocation());
+                        }
+                        map = new BasicMapData(getIntAttribute(reader, "width"), getIntAttribute(reader, "length"),
+                                sizeLimits);
+                        break;
+                    case "Stop":
+                        requireMap(map, reader).addStop(readStop(reader));
+                        break;
+                    case "Path":
+                        requireMap(map, reader).addPath(readPath(reader));
+                        break;
+                    case "PlannedTrips":
+                        skipElement(reader);
+                        break;
+                }
+            }
+
+            if (map == null) {
+                throw new XMLStreamException("The file has no map boundries.");
+            }
+            return map;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static BasicMapData requireMap(BasicMapData map, XMLStreamReader reader) throws XMLStreamException {
+        if (map == null) {
+            throw new XMLStreamException("The map boundries must come before the stops and paths.",
+                    reader.getLocation());
+        }
+        return map;
+    }
+
+    private static api.generated.Stop readStop(XMLStreamReader reader) throws XMLStreamException {
+        api.generated.Stop stop = new api.generated.Stop();
+        stop.setName(getAttribute(reader, "name"));
+        stop.setX(getIntAttribute(reader, "x"));
+        stop.setY(getIntAttribute(reader, "y"));
+        return stop;
+    }
+
+    /**
+     * Reads a path element, leaving the reader at its end.
+     */
+    private static api.generated.Path readPath(XMLStreamReader reader) throws XMLStreamException {
+        api.generated.Path path = new api.generated.Path();
+        path.setFrom(getAttribute(reader, "from"));
+        path.setTo(getAttribute(reader, "to"));
+        String oneWay = reader.getAttributeValue(null, "one-way");
+        if (oneWay != null) {
+            oneWay = oneWay.trim();
+            path.setOneWay(oneWay.equals("true") || oneWay.equals("1"));
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            int value = parseInt(reader.getElementText(), reader);
+            switch (elementName) {
+                case "Length":
+                    path.setLength(value);
+                    break;
+                case "FuelConsumption":
+                    path.setFuelConsumption(value);
+                    break;
+                case "SpeedLimit":
+                    path.setSpeedLimit(value);
+                    break;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Skips the element the reader is at, with everything inside it, leaving the reader at its end.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String getAttribute(XMLStreamReader reader, String attributeName) throws XMLStreamException {
+        String value = reader.getAttributeValue(null, attributeName);
+        if (value == null) {
+            throw new XMLStreamException(reader.getLocalName() + " is missing the attribute " + attributeName + ".",
+                    reader.getLocation());
+        }
+        return value;
+    }
+
+    private static int getIntAttribute(XMLStreamReader reader, String attributeName) throws XMLStreamException {
+        return parseInt(getAttribute(reader, attributeName), reader);
+    }
+
+    private static int parseInt(String value, XMLStreamReader reader) throws XMLStreamException {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException(value + " is not a whole number.", reader.getLocation());
+        }
+    }
+}
@@ -3,14 +3,16 @@ package api.transpool.map.component;
 import java.util.Objects;
 
 public class Stop {
-    private static int IDGenerator = 0;
     private int ID;
     private int x;
     private int y;
     private String name;
 
-    public Stop(api.generated.Stop JAXBStop) {
-        this.ID = IDGenerator++;
+    /**
+     * @param ID - The ID of the stop in its map. The stops of a map are numbered from 0.
+     */
+    public Stop(int ID, api.generated.Stop JAXBStop) {
+        this.ID = ID;
         this.x = JAXBStop.getX();
         this.y = JAXBStop.getY();
         this.name = JAXBStop.getName().trim();
@@ -44,10 +46,6 @@ public class Stop {
         return new StopDTO(this);
     }
 
-    public static void resetIDGenerator() {
-        IDGenerator = 0;
-    }
-
     @Override
     public String toString() {
         return getName();
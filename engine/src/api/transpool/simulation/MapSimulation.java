@@ -0,0 +1,156 @@
+package api.transpool.simulation;
+
+import api.transpool.SingleMapEngine;
+import api.transpool.map.component.Stop;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.matching.component.MatchingAlgorithm;
+import api.transpool.trip.matching.component.PossibleRoute;
+import api.transpool.trip.offer.component.TripOffer;
+import api.transpool.trip.offer.component.TripOfferTimeline;
+import api.transpool.trip.request.component.MatchedTripRequest;
+import api.transpool.trip.request.component.TripRequest;
+import api.transpool.trip.request.component.TripRequestData;
+import exception.parser.NoResultsFoundException;
+import exception.parser.RideFullException;
+import exception.parser.TransPoolDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fast-forwards a single map through its scheduled trips, for capacity planning.
+ * Rather than moving the clock a minute at a time, the simulation moves the map's clock straight to the next event -
+ * the next departure or arrival on the map's timeline, or the next synthetic trip request - so a day of trips takes
+ * as many updates as it has events.
+ * Synthetic requests are spread evenly at random over the run, between random stops, asking to depart at the time
+ * they are made. Each one is matched with the chosen algorithm and booked on the first route found.
+ * The simulation runs on a copy of the map (see SingleMapEngine.createSimulationCopy()), so the map's clock, its offers
+ * and its drivers are left as they were - the synthetic riders are only booked on the copy.
+ */
+public class MapSimulation {
+
+    public static final String SYNTHETIC_RIDER_NAME = "Simulated rider";
+
+    private SingleMapEngine map;
+    private MatchingAlgorithm algorithm;
+    private int numOfSyntheticRequests;
+    private Random random;
+
+    /**
+     * @param map - The map to simulate.
+     * @param algorithm - The algorithm to match the synthetic requests with.
+     * @param numOfSyntheticRequests - The number of requests to make during the run, 0 for none.
+     * @throws IllegalArgumentException - If the number of requests is negative.
+     * @param seed - The seed of the random requests, the same seed on the same map makes the same requests.
+     */
+    public MapSimulation(SingleMapEngine map, MatchingAlgorithm algorithm, int numOfSyntheticRequests, long seed) {
+        if (numOfSyntheticRequests < 0) {
+            throw new IllegalArgumentException("Invalid number of synthetic requests: " + numOfSyntheticRequests + ".");
+        }
+        this.map = map;
+        this.algorithm = algorithm;
+        this.numOfSyntheticRequests = numOfSyntheticRequests;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs a copy of the map from the map's current time.
+     * @param durationInMinutes - How far to move the copy's clock.
+     * @return - The throughput of the run, and the occupancy of every trip offer over it.
+     * @throws TransPoolDataException - If a synthetic request could not be made on the map.
+     * @throws IllegalArgumentException - If the duration is negative.
+     */
+    public SimulationReport run(int durationInMinutes) throws TransPoolDataException {
+        if (durationInMinutes < 0) {
+            throw new IllegalArgumentException("Invalid simulation duration: " + durationInMinutes + ".");
+        }
+        SingleMapEngine simulatedMap = map.createSimulationCopy();
+        int startMinute = simulatedMap.getCurrentMinute();
+        int endMinute = startMinute + durationInMinutes;
+        int[] requestMinutes = createRequestMinutes(simulatedMap, startMinute, endMinute);
+        int nextRequest = 0;
+
+        long numOfEvents = 0;
+        int numOfMatches = 0;
+        long startNanos = System.nanoTime();
+        while (true) {
+            int nextEventMinute = simulatedMap.getNextTimelineEventMinute(simulatedMap.getCurrentMinute(), endMinute);
+            int nextRequestMinute = nextRequest < requestMinutes.length
+                    ? requestMinutes[nextRequest]
+                    : TripOfferTimeline.NO_EVENT;
+            int nextMinute = getEarliest(nextEventMinute, nextRequestMinute);
+            if (nextMinute == TripOfferTimeline.NO_EVENT) {
+                break;
+            }
+
+            simulatedMap.advanceTime(nextMinute - simulatedMap.getCurrentMinute());
+            if (nextMinute == nextEventMinute) {
+                numOfEvents += simulatedMap.getNumOfTimelineEventsAt(nextMinute);
+            }
+            while (nextRequest < requestMinutes.length && requestMinutes[nextRequest] == nextMinute) {
+                numOfEvents++;
+                if (matchSyntheticRequest(simulatedMap, nextMinute)) {
+                    numOfMatches++;
+                }
+                nextRequest++;
+            }
+        }
+        simulatedMap.advanceTime(endMinute - simulatedMap.getCurrentMinute());
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        List<TripOfferOccupancy> occupancies = new ArrayList<>();
+        for (TripOffer tripOffer : simulatedMap.getAllTripOffers().values()) {
+            occupancies.add(new TripOfferOccupancy(tripOffer, startMinute, endMinute));
+        }
+        return new SimulationReport(durationInMinutes, numOfEvents, requestMinutes.length, numOfMatches, elapsedNanos,
+                occupancies);
+    }
+
+    private int[] createRequestMinutes(SingleMapEngine simulatedMap, int startMinute, int endMinute) {
+        int[] requestMinutes = new int[simulatedMap.getNumberOfStops() < 2 ? 0 : numOfSyntheticRequests];
+        for (int i = 0; i < requestMinutes.length; i++) {
+            requestMinutes[i] = startMinute + random.nextInt(endMinute - startMinute + 1);
+        }
+        Arrays.sort(requestMinutes);
+        return requestMinutes;
+    }
+
+    private int getEarliest(int minute, int otherMinute) {
+        if (minute == TripOfferTimeline.NO_EVENT) {
+            return otherMinute;
+        } else if (otherMinute == TripOfferTimeline.NO_EVENT) {
+            return minute;
+        } else {
+            return Math.min(minute, otherMinute);
+        }
+    }
+
+    /**
+     * Makes a request between two random stops departing now, and books it if a route is found.
+     * A request that can't be matched is deleted from the simulated map.
+     * @return - true if the request was matched.
+     */
+    private boolean matchSyntheticRequest(SingleMapEngine simulatedMap, int minute) throws TransPoolDataException {
+        List<Stop> stops = simulatedMap.getAllStopsAsList();
+        Stop sourceStop = stops.get(random.nextInt(stops.size()));
+        Stop destinationStop = stops.get(random.nextInt(stops.size() - 1));
+        if (destinationStop.equals(sourceStop)) {
+            destinationStop = stops.get(stops.size() - 1);
+        }
+
+        TimeDay requestTime = TimeDay.fromMinutes(minute);
+        TripRequest request = new TripRequestData(simulatedMap, SYNTHETIC_RIDER_NAME, sourceStop.getName(),
+                destinationStop.getName(), requestTime.getDay(), requestTime.getTime(), false, false);
+        simulatedMap.addTripRequest(request);
+        try {
+            PossibleRoute route = simulatedMap.getAllPossibleRoutes(request.getID(), 1, algorithm).get(0);
+            simulatedMap.addMatchedRequest(new MatchedTripRequest(request, route));
+            return true;
+        } catch (NoResultsFoundException | RideFullException e) {
+            simulatedMap.deleteTripRequest(request);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package api.transpool.simulation;
+
+import java.util.List;
+
+/**
+ * The results of a simulation run - how fast the map was run through, and how full each trip offer was.
+ */
+public class SimulationReport {
+
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+    private int simulatedMinutes;
+    private long numOfEvents;
+    private int numOfRequests;
+    private int numOfMatches;
+    private long elapsedNanos;
+    private List<TripOfferOccupancy> occupancies;
+
+    public SimulationReport(int simulatedMinutes, long numOfEvents, int numOfRequests, int numOfMatches,
+                            long elapsedNanos, List<TripOfferOccupancy> occupancies) {
+        this.simulatedMinutes = simulatedMinutes;
+        this.numOfEvents = numOfEvents;
+        this.numOfRequests = numOfRequests;
+        this.numOfMatches = numOfMatches;
+        this.elapsedNanos = elapsedNanos;
+        this.occupancies = occupancies;
+    }
+
+    public int getSimulatedMinutes() {
+        return simulatedMinutes;
+    }
+
+    /**
+     * @return - The number of departures, arrivals and synthetic requests the run went through.
+     */
+    public long getNumOfEvents() {
+        return numOfEvents;
+    }
+
+    public int getNumOfRequests() {
+        return numOfRequests;
+    }
+
+    public int getNumOfMatches() {
+        return numOfMatches;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getEventsPerSecond() {
+        return perSecond(numOfEvents);
+    }
+
+    public double getMatchesPerSecond() {
+        return perSecond(numOfMatches);
+    }
+
+    public double getSimulatedMinutesPerSecond() {
+        return perSecond(simulatedMinutes);
+    }
+
+    public List<TripOfferOccupancy> getOccupancies() {
+        return occupancies;
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * NANOS_IN_SECOND / elapsedNanos;
+    }
+}
@@ -0,0 +1,49 @@
+package api.transpool.simulation;
+
+import api.transpool.trip.offer.component.TripOffer;
+import api.transpool.trip.offer.component.TripOfferPart;
+
+/**
+ * How full a trip offer was over a simulation run - the seats booked on its parts' occurrences departing during the
+ * run, out of all the seats they offered.
+ */
+public class TripOfferOccupancy {
+
+    private int tripOfferID;
+    private String driverName;
+    private int numOfSeatsOffered;
+    private int numOfSeatsBooked;
+
+    public TripOfferOccupancy(TripOffer tripOffer, int fromMinute, int toMinute) {
+        this.tripOfferID = tripOffer.getID();
+        this.driverName = tripOffer.getTransPoolDriver().getUsername();
+        for (TripOfferPart tripOfferPart : tripOffer.getRoute()) {
+            numOfSeatsOffered += tripOfferPart.getNumOfOccurrencesBetween(fromMinute, toMinute)
+                    * tripOfferPart.getMaxPassengerCapacity();
+            numOfSeatsBooked += tripOfferPart.getNumOfBookedSeatsBetween(fromMinute, toMinute);
+        }
+    }
+
+    public int getTripOfferID() {
+        return tripOfferID;
+    }
+
+    public String getDriverName() {
+        return driverName;
+    }
+
+    public int getNumOfSeatsOffered() {
+        return numOfSeatsOffered;
+    }
+
+    public int getNumOfSeatsBooked() {
+        return numOfSeatsBooked;
+    }
+
+    /**
+     * @return - The part of the seats offered that were booked, between 0 and 1. 0 if no seats were offered.
+     */
+    public double getOccupancy() {
+        return numOfSeatsOffered == 0 ? 0 : (double) numOfSeatsBooked / numOfSeatsOffered;
+    }
+}
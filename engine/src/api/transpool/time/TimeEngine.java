@@ -11,5 +11,16 @@ public interface TimeEngine {
     void decrementTime(TimeInterval interval, List<Updatable> updatables);
     void incrementTime(TimeInterval interval);
     void decrementTime(TimeInterval interval);
+
+    /**
+     * Moves the time forward by any number of minutes at once, rather than by a TimeInterval.
+     */
+    void advanceTime(int minutes, List<Updatable> updatables);
+    void advanceTime(int minutes);
     TimeDay getCurrentTime();
+
+    /**
+     * @return - The current time, in minutes (see TimeDay.toMinutes()).
+     */
+    int getCurrentMinute();
 }
@@ -5,37 +5,66 @@ import api.transpool.time.component.TimeDay;
 import api.transpool.time.component.TimeInterval;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * The clock of a single map. Every map has its own clock, so moving the time of one map doesn't move the others.
+ * The time is kept as minutes (see TimeDay.toMinutes()) in an atomic integer, so it can be moved and read from
+ * different threads without locking.
+ */
 public class TimeEngineBase implements TimeEngine {
-    public static TimeDay currentTime = new TimeDay();
+    private AtomicInteger currentMinute;
 
     public TimeEngineBase() {
+        this.currentMinute = new AtomicInteger(0);
     }
 
     @Override
     public void incrementTime(TimeInterval interval, List<Updatable> updatables) {
-        currentTime.plus(interval.getMinutes());
+        incrementTime(interval);
         updatables.forEach(Updatable::update);
     }
 
     @Override
     public void decrementTime(TimeInterval interval, List<Updatable> updatables) {
-        currentTime.minus(interval.getMinutes());
+        decrementTime(interval);
         updatables.forEach(Updatable::update);
     }
 
     @Override
     public void incrementTime(TimeInterval interval) {
-        currentTime.plus(interval.getMinutes());
+        currentMinute.addAndGet(interval.getMinutes());
     }
 
+    /**
+     * The time never goes back before the start of the first day - if it would, it doesn't move.
+     */
     @Override
     public void decrementTime(TimeInterval interval) {
-        currentTime.minus(interval.getMinutes());
+        currentMinute.updateAndGet(minute -> minute >= interval.getMinutes() ? minute - interval.getMinutes() : minute);
     }
 
+    @Override
+    public void advanceTime(int minutes, List<Updatable> updatables) {
+        advanceTime(minutes);
+        updatables.forEach(Updatable::update);
+    }
+
+    @Override
+    public void advanceTime(int minutes) {
+        currentMinute.addAndGet(minutes);
+    }
+
+    /**
+     * @return - A new TimeDay of the current time, changing it doesn't move the clock.
+     */
     @Override
     public TimeDay getCurrentTime() {
-        return currentTime;
+        return TimeDay.fromMinutes(currentMinute.get());
+    }
+
+    @Override
+    public int getCurrentMinute() {
+        return currentMinute.get();
     }
 }
@@ -3,14 +3,16 @@ package api.transpool.time.component;
 public interface Occurrence {
     TimeDay getOccurrenceStart();
     TimeDay getOccurrenceEnd();
+    int getOccurrenceStartMinute();
+    int getOccurrenceEndMinute();
     int getOccurrenceDay();
     boolean isAfter(Occurrence other);
     boolean isAfter(TimeDay timeDay);
     boolean isBefore(Occurrence other);
     boolean isBefore(TimeDay timeDay);
 
-    boolean isOccurring();
-    boolean isStarting();
-    boolean isEnding();
+    boolean isOccurring(int minute);
+    boolean isStarting(int minute);
+    boolean isEnding(int minute);
 
 }
@@ -54,6 +54,22 @@ public enum Recurrence {
         }
     }
 
+    /**
+     * Finds how long ago the latest occurrence started, for a schedule whose first occurrence started at firstMinute.
+     * @param minute - The time to check, in minutes (see TimeDay.toMinutes()).
+     * @param firstMinute - The time of the first occurrence, in minutes.
+     * @return - The minutes from the latest occurrence at or before minute until minute, -1 if there is none.
+     */
+    public int getMinutesSinceOccurrence(int minute, int firstMinute) {
+        if (minute < firstMinute) {
+            return -1;
+        } else if (this.equals(ONE_TIME)) {
+            return minute - firstMinute;
+        } else {
+            return (minute - firstMinute) % (value * TimeDay.MINUTES_IN_DAY);
+        }
+    }
+
     public int getNextRecurrenceDay(int day, Recurrence recurrenceType) {
         return day += recurrenceType.getValue();
     }
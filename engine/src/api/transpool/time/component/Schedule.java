@@ -4,6 +4,7 @@ public interface Schedule {
     Recurrence getRecurrences();
     Occurrence getFirstOccurrence();
     Occurrence getOccurrenceAfter(TimeDay timeDay);
+    Occurrence getOccurrenceBefore(TimeDay timeDay);
     Occurrence getOrCreateOccurrence(int occurrenceDay);
 
     int getDayStart();
@@ -12,6 +12,7 @@ import java.util.Objects;
 
 public class TimeDay implements Comparable<TimeDay> {
 
+    public static final int MINUTES_IN_DAY = 1440;
     private static final int DAY_START = 1;
     private static final LocalTime TIME_START = LocalTime.MIDNIGHT;
 
@@ -52,6 +53,43 @@ public class TimeDay implements Comparable<TimeDay> {
     public int getDay() {
         return day;
     }
+
+    /**
+     * @return - The number of minutes from the start of the first day until this time.
+     */
+    public int toMinutes() {
+        return (day - DAY_START) * MINUTES_IN_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * The opposite of toMinutes(). The engine keeps its times as minutes, and turns them into a TimeDay only when
+     * they are shown.
+     * @param minutes - The number of minutes from the start of the first day.
+     * @return - A new TimeDay of that minute.
+     */
+    public static TimeDay fromMinutes(int minutes) {
+        TimeDay timeDay = new TimeDay();
+        int minuteOfDay = minutes % MINUTES_IN_DAY;
+        timeDay.time = LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+        timeDay.day = toDay(minutes);
+        return timeDay;
+    }
+
+    /**
+     * @param minutes - The number of minutes from the start of the first day.
+     * @return - The day that minute is on.
+     */
+    public static int toDay(int minutes) {
+        return minutes / MINUTES_IN_DAY + DAY_START;
+    }
+
+    /**
+     * @param day - A day.
+     * @return - The number of minutes from the start of the first day until the start of the day.
+     */
+    public static int toMinutesAtDayStart(int day) {
+        return (day - DAY_START) * MINUTES_IN_DAY;
+    }
     
     /**
      * Checks to see if an instance of TimeDay is before another instance ofTimeDay.
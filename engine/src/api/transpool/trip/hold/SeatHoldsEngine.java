@@ -0,0 +1,44 @@
+package api.transpool.trip.hold;
+
+import api.transpool.trip.hold.component.SeatHold;
+import api.transpool.trip.matching.component.PossibleRoute;
+import api.transpool.trip.offer.component.SeatReservation;
+
+import java.util.List;
+
+/**
+ * The engine interface that controls the seats held on routes between finding them and booking them.
+ */
+public interface SeatHoldsEngine {
+
+    /**
+     * Holds a seat on every distinct leg of the routes. Routes sharing a leg hold a single seat on it, so one search
+     * doesn't take several seats of the same ride. Legs with no seats left are skipped.
+     * @return - The hold, null if none of the legs has seats left.
+     */
+    SeatHold holdSeats(List<PossibleRoute> routes);
+
+    /**
+     * Takes the held seats of the chosen route for a booking, and gives back the seats held on the other legs.
+     * @param chosenRoute - One of the routes of the hold.
+     * @return - The reservation of the chosen route's seats, null if the hold already expired or was released, or
+     * not every leg of the route was held.
+     */
+    SeatReservation claimSeatHold(SeatHold hold, PossibleRoute chosenRoute);
+
+    void releaseSeatHold(SeatHold hold);
+
+    /**
+     * Gives back the seats of a reservation which won't be booked, such as the seats of a claimed hold whose booking
+     * failed.
+     */
+    void releaseSeats(SeatReservation reservation);
+
+    void releaseExpiredSeatHolds();
+
+    int getNumOfSeatHolds();
+
+    long getSeatHoldTimeToLiveMillis();
+
+    void setSeatHoldTimeToLiveMillis(long timeToLiveMillis);
+}
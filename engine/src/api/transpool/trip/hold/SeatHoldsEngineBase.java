@@ -0,0 +1,116 @@
+package api.transpool.trip.hold;
+
+import api.transpool.trip.hold.component.SeatHold;
+import api.transpool.trip.hold.component.SeatHoldTimerWheel;
+import api.transpool.trip.matching.component.PossibleRoute;
+import api.transpool.trip.matching.component.RouteQueryCache;
+import api.transpool.trip.matching.component.StopReachabilityIndex;
+import api.transpool.trip.matching.component.TripOffersGraph;
+import api.transpool.trip.offer.component.SeatReservation;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the seats of the routes found for riders for a limited time (see SeatHold).
+ * Expired holds are released as the timer wheel is moved, which happens whenever holds are made or claimed, and before
+ * every matching search on the map.
+ * Holding and releasing seats changes which routes can be booked. Holding seats drops the cached routes on the held
+ * legs, and releasing them drops the cached queries the released legs could be a part of a route for, as the searches
+ * made while the legs were full skipped them.
+ */
+public class SeatHoldsEngineBase implements SeatHoldsEngine {
+
+    private static final long DEFAULT_TIME_TO_LIVE_MILLIS = 2 * 60 * 1000;
+    private static final long TICK_MILLIS = 1000;
+    private static final int NUM_OF_SLOTS = 512;
+
+    private SeatHoldTimerWheel timerWheel;
+    private RouteQueryCache routeQueryCache;
+    private StopReachabilityIndex reachabilityIndex;
+    private AtomicInteger IDGenerator;
+    private volatile long timeToLiveMillis;
+
+    /**
+     * @param tripOffersGraph - The graph of the map's trip offers, whose route query cache is kept up to date.
+     */
+    public SeatHoldsEngineBase(TripOffersGraph tripOffersGraph) {
+        this.routeQueryCache = tripOffersGraph.getRouteQueryCache();
+        this.reachabilityIndex = tripOffersGraph.getReachabilityIndex();
+        this.timerWheel = new SeatHoldTimerWheel(TICK_MILLIS, NUM_OF_SLOTS, System.currentTimeMillis());
+        this.IDGenerator = new AtomicInteger();
+        this.timeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+    }
+
+    @Override
+    public SeatHold holdSeats(List<PossibleRoute> routes) {
+        releaseExpiredSeatHolds();
+        List<TripOfferPartOccurrence> legs = routes
+                .stream()
+                .flatMap(route -> route.getRoute().stream())
+                .collect(Collectors.toList());
+        SeatReservation reservation = SeatReservation.reserveAvailable(legs, TripOfferPartOccurrence.SEATS_PER_RIDER);
+        if (reservation == null) {
+            return null;
+        }
+
+        SeatHold hold = new SeatHold(IDGenerator.incrementAndGet(), routes, reservation,
+                System.currentTimeMillis() + timeToLiveMillis);
+        timerWheel.add(hold);
+        routeQueryCache.invalidate(reservation.getReservedOccurrences());
+        return hold;
+    }
+
+    @Override
+    public SeatReservation claimSeatHold(SeatHold hold, PossibleRoute chosenRoute) {
+        releaseExpiredSeatHolds();
+        if (!timerWheel.remove(hold)) {
+            return null;
+        }
+        SeatReservation chosenRouteSeats = hold.getReservation().keepOnly(chosenRoute.getRoute());
+        //The seats held on the other legs were given back.
+        routeQueryCache.invalidateReleased(reachabilityIndex, hold.getReservation().getReservedOccurrences());
+        return chosenRouteSeats;
+    }
+
+    @Override
+    public void releaseSeatHold(SeatHold hold) {
+        if (timerWheel.remove(hold)) {
+            cancel(hold);
+        }
+    }
+
+    @Override
+    public void releaseExpiredSeatHolds() {
+        timerWheel
+                .advanceTo(System.currentTimeMillis())
+                .forEach(this::cancel);
+    }
+
+    @Override
+    public void releaseSeats(SeatReservation reservation) {
+        reservation.cancel();
+        routeQueryCache.invalidateReleased(reachabilityIndex, reservation.getReservedOccurrences());
+    }
+
+    private void cancel(SeatHold hold) {
+        releaseSeats(hold.getReservation());
+    }
+
+    @Override
+    public int getNumOfSeatHolds() {
+        return timerWheel.size();
+    }
+
+    @Override
+    public long getSeatHoldTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    @Override
+    public void setSeatHoldTimeToLiveMillis(long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+}
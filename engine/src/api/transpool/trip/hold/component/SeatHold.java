@@ -0,0 +1,52 @@
+package api.transpool.trip.hold.component;
+
+import api.transpool.trip.matching.component.PossibleRoute;
+import api.transpool.trip.offer.component.SeatReservation;
+
+import java.util.List;
+
+/**
+ * Seats held on the possible routes of a search for a short time after they were found, so the rider can still book
+ * the route they choose. The hold owns a reservation of a seat on every distinct leg of the routes; it is either
+ * claimed for a booking of one of the routes, released, or expires.
+ */
+public class SeatHold {
+
+    private int ID;
+    private List<PossibleRoute> routes;
+    private SeatReservation reservation;
+    private long expiryMillis;
+    //The tick of the timer wheel the hold expires on, set when it is added to the wheel.
+    private long expiryTick;
+
+    public SeatHold(int ID, List<PossibleRoute> routes, SeatReservation reservation, long expiryMillis) {
+        this.ID = ID;
+        this.routes = routes;
+        this.reservation = reservation;
+        this.expiryMillis = expiryMillis;
+    }
+
+    public int getID() {
+        return ID;
+    }
+
+    public List<PossibleRoute> getRoutes() {
+        return routes;
+    }
+
+    public SeatReservation getReservation() {
+        return reservation;
+    }
+
+    public long getExpiryMillis() {
+        return expiryMillis;
+    }
+
+    long getExpiryTick() {
+        return expiryTick;
+    }
+
+    void setExpiryTick(long expiryTick) {
+        this.expiryTick = expiryTick;
+    }
+}
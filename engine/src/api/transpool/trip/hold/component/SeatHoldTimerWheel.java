@@ -0,0 +1,94 @@
+package api.transpool.trip.hold.component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A hashed timer wheel of seat holds - time is cut into ticks, and each hold sits in the slot of the tick it expires
+ * on, wrapping around the wheel. Adding and removing a hold is constant time, and moving the wheel only looks at the
+ * slots of the ticks that passed, rather than at every hold.
+ * The wheel has no thread of its own, it is moved to the current time by whoever uses it.
+ * A hold is only ever taken out of the wheel once - by remove() or by expiring - so a hold can't be both claimed and
+ * expired.
+ */
+public class SeatHoldTimerWheel {
+
+    private long tickMillis;
+    private List<Set<SeatHold>> slots;
+    //Every hold expiring on this tick or before it was already taken out of the wheel.
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis - The length of a tick. Holds expire up to one tick late.
+     * @param numOfSlots - The number of slots around the wheel.
+     * @param nowMillis - The current time.
+     */
+    public SeatHoldTimerWheel(long tickMillis, int numOfSlots, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(numOfSlots);
+        for (int i = 0; i < numOfSlots; i++) {
+            slots.add(new HashSet<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+        this.size = 0;
+    }
+
+    public synchronized void add(SeatHold hold) {
+        long expiryTick = Math.max(currentTick + 1, (hold.getExpiryMillis() + tickMillis - 1) / tickMillis);
+        hold.setExpiryTick(expiryTick);
+        getSlot(expiryTick).add(hold);
+        size++;
+    }
+
+    /**
+     * @return - true if the hold was taken out of the wheel, false if it already expired or was removed.
+     */
+    public synchronized boolean remove(SeatHold hold) {
+        boolean isRemoved = getSlot(hold.getExpiryTick()).remove(hold);
+        if (isRemoved) {
+            size--;
+        }
+        return isRemoved;
+    }
+
+    /**
+     * Moves the wheel to the current time.
+     * @param nowMillis - The current time.
+     * @return - The holds which expired since the wheel was last moved, taken out of the wheel.
+     */
+    public synchronized List<SeatHold> advanceTo(long nowMillis) {
+        List<SeatHold> expiredHolds = new ArrayList<>();
+        long nowTick = nowMillis / tickMillis;
+        if (nowTick <= currentTick) {
+            return expiredHolds;
+        }
+
+        //Past a full turn every slot is visited once.
+        long lastTick = Math.min(nowTick, currentTick + slots.size());
+        for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+            Iterator<SeatHold> holds = getSlot(tick).iterator();
+            while (holds.hasNext()) {
+                SeatHold hold = holds.next();
+                if (hold.getExpiryTick() <= nowTick) {
+                    holds.remove();
+                    expiredHolds.add(hold);
+                }
+            }
+        }
+        size -= expiredHolds.size();
+        currentTick = nowTick;
+        return expiredHolds;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private Set<SeatHold> getSlot(long tick) {
+        return slots.get((int) (tick % slots.size()));
+    }
+}
@@ -1,7 +1,11 @@
 package api.transpool.trip.matching;
 
+import api.transpool.trip.matching.component.MatchingAlgorithm;
 import api.transpool.trip.matching.component.PossibleRoutesList;
 
 public interface MatchingEngine {
     PossibleRoutesList getAllPossibleRoutes(int tripRequestID, int maximumMatches);
+    PossibleRoutesList getAllPossibleRoutes(int tripRequestID, int maximumMatches, MatchingAlgorithm algorithm);
+    int getNumOfRouteCacheHits();
+    int getNumOfRouteCacheMisses();
 }
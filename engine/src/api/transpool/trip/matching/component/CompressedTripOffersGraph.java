@@ -0,0 +1,192 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.time.component.Recurrence;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.TripOfferPart;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
+
+import java.util.List;
+
+/**
+ * The trip offers graph in compressed sparse row form.
+ * The parts leaving stop i are the edges offsets[i] until offsets[i + 1], and each edge's data is kept in parallel
+ * primitive arrays. A search walks these arrays instead of the lists of TripOfferParts, and only turns the edges of
+ * the route it found back into TripOfferPartOccurrences.
+ * Times are kept as minutes from the start of the first day (see TimeDay.toMinutes()).
+ * A reversed graph keeps the parts by their destination stop, and its target of an edge is the part's source stop.
+ */
+public class CompressedTripOffersGraph {
+
+    public static final int NO_OCCURRENCE = -1;
+
+    private int numOfStops;
+    private int[] offsets;
+    private int[] targetStopIDs;
+    private int[] firstDepartureMinutes;
+    private int[] durationsInMinutes;
+    private int[] prices;
+    private int[] capacities;
+    private int[] recurrencesInMinutes;
+    private int[] driverIDs;
+    private TripOfferPart[] tripOfferParts;
+
+    /**
+     * @param adjointList - The parts of each stop, by stop ID.
+     * @param isReversed - true if the lists hold the parts arriving at each stop rather than the parts leaving it.
+     */
+    public CompressedTripOffersGraph(List<List<TripOfferPart>> adjointList, boolean isReversed) {
+        this.numOfStops = adjointList.size();
+        this.offsets = new int[numOfStops + 1];
+        for (int i = 0; i < numOfStops; i++) {
+            offsets[i + 1] = offsets[i] + adjointList.get(i).size();
+        }
+
+        int numOfEdges = offsets[numOfStops];
+        this.targetStopIDs = new int[numOfEdges];
+        this.firstDepartureMinutes = new int[numOfEdges];
+        this.durationsInMinutes = new int[numOfEdges];
+        this.prices = new int[numOfEdges];
+        this.capacities = new int[numOfEdges];
+        this.recurrencesInMinutes = new int[numOfEdges];
+        this.driverIDs = new int[numOfEdges];
+        this.tripOfferParts = new TripOfferPart[numOfEdges];
+
+        for (int i = 0; i < numOfStops; i++) {
+            int edge = offsets[i];
+            for (TripOfferPart tripOfferPart : adjointList.get(i)) {
+                setEdge(edge++, tripOfferPart, isReversed);
+            }
+        }
+    }
+
+    private void setEdge(int edge, TripOfferPart tripOfferPart, boolean isReversed) {
+        Recurrence recurrence = tripOfferPart.getRecurrences();
+        int departureMinute = tripOfferPart.getDepartureMinute();
+
+        targetStopIDs[edge] = isReversed
+                ? tripOfferPart.getSourceStop().getID()
+                : tripOfferPart.getDestinationStop().getID();
+        firstDepartureMinutes[edge] = departureMinute;
+        durationsInMinutes[edge] = tripOfferPart.getArrivalMinute() - departureMinute;
+        prices[edge] = tripOfferPart.getPrice();
+        capacities[edge] = tripOfferPart.getMaxPassengerCapacity();
+        recurrencesInMinutes[edge] = recurrence.equals(Recurrence.ONE_TIME)
+                ? 0
+                : recurrence.getValue() * TimeDay.MINUTES_IN_DAY;
+        driverIDs[edge] = tripOfferPart.getTransPoolDriver().getID();
+        tripOfferParts[edge] = tripOfferPart;
+    }
+
+    public int getNumOfStops() {
+        return numOfStops;
+    }
+
+    public int getNumOfEdges() {
+        return targetStopIDs.length;
+    }
+
+    public int getFirstEdge(int stopID) {
+        return offsets[stopID];
+    }
+
+    public int getEndEdge(int stopID) {
+        return offsets[stopID + 1];
+    }
+
+    public int getTargetStopID(int edge) {
+        return targetStopIDs[edge];
+    }
+
+    public int getDurationInMinutes(int edge) {
+        return durationsInMinutes[edge];
+    }
+
+    public int getPrice(int edge) {
+        return prices[edge];
+    }
+
+    public int getDriverID(int edge) {
+        return driverIDs[edge];
+    }
+
+    public TripOfferPart getTripOfferPart(int edge) {
+        return tripOfferParts[edge];
+    }
+
+    /**
+     * The same as TripOfferPart.getOccurrenceAfter with the required seats, without creating the occurrence.
+     * @param edge - The edge of the part.
+     * @param minute - The occurrence departs at or after this minute.
+     * @param requiredSeats - The number of seats the rider needs on the occurrence.
+     * @return - The departure minute of the first such occurrence, NO_OCCURRENCE if there is none.
+     */
+    public int getDepartureAfter(int edge, int minute, int requiredSeats) {
+        if (capacities[edge] < requiredSeats) {
+            return NO_OCCURRENCE;
+        }
+        int departureMinute = getDepartureAfter(edge, minute);
+        while (departureMinute != NO_OCCURRENCE && !hasSpaces(edge, departureMinute, requiredSeats)) {
+            departureMinute = recurrencesInMinutes[edge] == 0
+                    ? NO_OCCURRENCE
+                    : departureMinute + recurrencesInMinutes[edge];
+        }
+        return departureMinute;
+    }
+
+    /**
+     * The same as TripOfferPart.getOccurrenceBefore, skipping occurrences without the required seats, without
+     * creating the occurrence.
+     * @param edge - The edge of the part.
+     * @param minute - The occurrence arrives at or before this minute.
+     * @param requiredSeats - The number of seats the rider needs on the occurrence.
+     * @return - The departure minute of the last such occurrence, NO_OCCURRENCE if there is none.
+     */
+    public int getDepartureBefore(int edge, int minute, int requiredSeats) {
+        if (capacities[edge] < requiredSeats) {
+            return NO_OCCURRENCE;
+        }
+        int departureMinute = getDepartureBefore(edge, minute);
+        while (departureMinute != NO_OCCURRENCE && !hasSpaces(edge, departureMinute, requiredSeats)) {
+            departureMinute = recurrencesInMinutes[edge] == 0 || departureMinute == firstDepartureMinutes[edge]
+                    ? NO_OCCURRENCE
+                    : departureMinute - recurrencesInMinutes[edge];
+        }
+        return departureMinute;
+    }
+
+    private boolean hasSpaces(int edge, int departureMinute, int requiredSeats) {
+        return tripOfferParts[edge].getSpacesLeft(TimeDay.toDay(departureMinute)) >= requiredSeats;
+    }
+
+    private int getDepartureAfter(int edge, int minute) {
+        int firstDeparture = firstDepartureMinutes[edge];
+        if (firstDeparture >= minute) {
+            return firstDeparture;
+        } else if (recurrencesInMinutes[edge] == 0) {
+            return NO_OCCURRENCE;
+        } else {
+            int period = recurrencesInMinutes[edge];
+            return firstDeparture + ((minute - firstDeparture + period - 1) / period) * period;
+        }
+    }
+
+    private int getDepartureBefore(int edge, int minute) {
+        int firstDeparture = firstDepartureMinutes[edge];
+        int firstArrival = firstDeparture + durationsInMinutes[edge];
+        if (firstArrival > minute) {
+            return NO_OCCURRENCE;
+        } else if (recurrencesInMinutes[edge] == 0) {
+            return firstDeparture;
+        } else {
+            int period = recurrencesInMinutes[edge];
+            return firstDeparture + ((minute - firstArrival) / period) * period;
+        }
+    }
+
+    /**
+     * Turns an edge and a departure minute found by a search back into the occurrence of the part.
+     */
+    public TripOfferPartOccurrence getOccurrence(int edge, int departureMinute) {
+        return tripOfferParts[edge].getOrCreateOccurrence(TimeDay.toDay(departureMinute));
+    }
+}
@@ -0,0 +1,366 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.map.component.Stop;
+import api.transpool.time.component.Recurrence;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.TripOffer;
+import api.transpool.trip.offer.component.TripOfferPart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The timetable for the Connection Scan matching algorithm.
+ * Every occurrence of every TripOfferPart, up to the horizon day, is a connection. The connections are kept in parallel
+ * int arrays sorted by departure time, so an earliest arrival query is a single pass over the arrays.
+ * Times are kept as minutes from the start of the first day (see TimeDay.toMinutes()).
+ * Recurring offers are materialized only within a window of days, from the first day to the horizon day. The window is
+ * stretched to the days a query needs, and once it spans more than MAX_MATERIALIZED_DAYS it is rebuilt around the
+ * query's days alone, so a query far in the future doesn't leave its connections to slow down every later scan.
+ */
+public class ConnectionScanTimetable {
+
+    //Every search may scan this many days ahead of the departure day - the longest recurrence, and then some.
+    private static final int SEARCH_WINDOW_DAYS = Recurrence.MONTHLY.getValue() + 1;
+    private static final int MAX_MATERIALIZED_DAYS = 4 * SEARCH_WINDOW_DAYS;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int numOfStops;
+    private int firstDay;
+    private int horizonDay;
+    private int lastDayStart;
+    private List<TripOfferPart> tripOfferParts;
+
+    private int numOfConnections;
+    private int[] departureMinutes;
+    private int[] arrivalMinutes;
+    private int[] sourceStopIDs;
+    private int[] destinationStopIDs;
+    private int[] partIndexes;
+
+    public ConnectionScanTimetable(int numOfStops) {
+        this.numOfStops = numOfStops;
+        this.firstDay = 1;
+        this.horizonDay = SEARCH_WINDOW_DAYS;
+        this.lastDayStart = 0;
+        this.tripOfferParts = new ArrayList<>();
+        this.numOfConnections = 0;
+        this.departureMinutes = new int[INITIAL_CAPACITY];
+        this.arrivalMinutes = new int[INITIAL_CAPACITY];
+        this.sourceStopIDs = new int[INITIAL_CAPACITY];
+        this.destinationStopIDs = new int[INITIAL_CAPACITY];
+        this.partIndexes = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Merges the connections of a new trip offer into the timetable, within the current window of days.
+     * @param tripOffer - The new trip offer.
+     */
+    public synchronized void add(TripOffer tripOffer) {
+        ConnectionBuffer newConnections = new ConnectionBuffer();
+        for (TripOfferPart tripOfferPart : tripOffer.getRoute()) {
+            tripOfferParts.add(tripOfferPart);
+            lastDayStart = Math.max(lastDayStart, tripOfferPart.getDayStart());
+            addOccurrences(newConnections, tripOfferParts.size() - 1, firstDay, horizonDay);
+        }
+        merge(newConnections);
+    }
+
+    /**
+     * Finds the route from source to destination which arrives the earliest, by scanning the connections departing
+     * after the departure time in order. A connection can be taken if the rider can be at its source stop by the time
+     * it departs and it has the required seats. The scan stops once connections depart after the best arrival time
+     * found at the destination.
+     * If nothing was found, the horizon is pushed another window ahead and the scan is repeated, as long as an offer
+     * starting later, or a later recurrence of a full recurring connection, could still make a route. Only a full
+     * connection whose next recurrence is past the horizon is a reason to look further - the recurrences before the
+     * horizon were already scanned, and a full one time connection never recurs. Every repeat pushes the horizon past
+     * all the connections the last scan skipped, and only finitely many occurrences can be full, so the repeats end.
+     * @param source - The stop to depart from.
+     * @param destination - The stop to arrive at.
+     * @param departureTime - The route departs at or after this time.
+     * @param requiredSeats - The number of seats the rider needs on every occurrence of the route.
+     * @return - The route arriving the earliest at destination, null if there is no such route.
+     */
+    public synchronized PossibleRoute findEarliestArrivalRoute(Stop source, Stop destination, TimeDay departureTime,
+                                                               int requiredSeats) {
+        if (source.equals(destination)) {
+            return null;
+        }
+
+        int[] arrivedWith = new int[numOfStops];
+        int departureDay = departureTime.getDay();
+        int windowEndDay = departureDay + SEARCH_WINDOW_DAYS;
+        while (true) {
+            materializeDays(departureDay, windowEndDay);
+            boolean isRecurrenceAfterHorizonNeeded =
+                    scan(arrivedWith, source, destination, departureTime.toMinutes(), requiredSeats);
+
+            if (arrivedWith[destination.getID()] != -1) {
+                return buildRoute(arrivedWith, source, destination);
+            } else if (!isRecurrenceAfterHorizonNeeded && windowEndDay >= lastDayStart) {
+                return null;
+            }
+            //The scan went over every materialized day, so the next one has to reach past them.
+            windowEndDay = Math.max(windowEndDay, horizonDay) + SEARCH_WINDOW_DAYS;
+        }
+    }
+
+    public synchronized int getNumOfConnections() {
+        return numOfConnections;
+    }
+
+    /**
+     * A single scan over the connections up to the horizon.
+     * @param arrivedWith - Filled with the connection used to arrive at each stop, -1 for stops that weren't reached.
+     * @return - true if a connection of a recurring part, that could have been taken, was skipped for not having the
+     * required seats, and its next recurrence is past the horizon. That recurrence may still have them.
+     */
+    private boolean scan(int[] arrivedWith, Stop source, Stop destination, int departureMinute, int requiredSeats) {
+        int[] earliestArrivals = new int[numOfStops];
+        Arrays.fill(earliestArrivals, Integer.MAX_VALUE);
+        Arrays.fill(arrivedWith, -1);
+        earliestArrivals[source.getID()] = departureMinute;
+
+        boolean isRecurrenceAfterHorizonNeeded = false;
+        int destinationID = destination.getID();
+        for (int i = getFirstConnectionAfter(departureMinute); i < numOfConnections; i++) {
+            if (departureMinutes[i] >= earliestArrivals[destinationID]) {
+                break;
+            }
+            if (earliestArrivals[sourceStopIDs[i]] <= departureMinutes[i]
+                    && arrivalMinutes[i] < earliestArrivals[destinationStopIDs[i]]) {
+                if (hasSpaces(i, requiredSeats)) {
+                    earliestArrivals[destinationStopIDs[i]] = arrivalMinutes[i];
+                    arrivedWith[destinationStopIDs[i]] = i;
+                } else if (isNextRecurrenceAfterHorizon(i)) {
+                    isRecurrenceAfterHorizonNeeded = true;
+                }
+            }
+        }
+        return isRecurrenceAfterHorizonNeeded;
+    }
+
+    private boolean isNextRecurrenceAfterHorizon(int connection) {
+        Recurrence recurrence = tripOfferParts.get(partIndexes[connection]).getRecurrences();
+        return !recurrence.equals(Recurrence.ONE_TIME)
+                && TimeDay.toDay(departureMinutes[connection]) + recurrence.getValue() > horizonDay;
+    }
+
+    /**
+     * A full occurrence is just a connection that can't be taken - the scan moves on to the later connections, which
+     * include the next recurrences of the same part.
+     */
+    private boolean hasSpaces(int connection, int requiredSeats) {
+        int occurrenceDay = TimeDay.toDay(departureMinutes[connection]);
+        return tripOfferParts.get(partIndexes[connection]).getSpacesLeft(occurrenceDay) >= requiredSeats;
+    }
+
+    /**
+     * Only the connections of the route are turned into TripOfferPartOccurrences.
+     */
+    private PossibleRoute buildRoute(int[] arrivedWith, Stop source, Stop destination) {
+        List<Integer> connections = new ArrayList<>();
+        int currentStopID = destination.getID();
+        while (currentStopID != source.getID()) {
+            int connection = arrivedWith[currentStopID];
+            connections.add(0, connection);
+            currentStopID = sourceStopIDs[connection];
+        }
+
+        PossibleRoute route = new PossibleRoute();
+        for (int connection : connections) {
+            int occurrenceDay = TimeDay.toDay(departureMinutes[connection]);
+            route.add(tripOfferParts.get(partIndexes[connection]).getOrCreateOccurrence(occurrenceDay));
+        }
+        return route;
+    }
+
+    /**
+     * Binary search for the first connection departing at or after the given minute.
+     */
+    private int getFirstConnectionAfter(int minute) {
+        int low = 0;
+        int high = numOfConnections;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departureMinutes[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Makes sure the occurrences departing between fromDay and toDay (inclusive) are in the timetable.
+     * The window of days is stretched to cover them if it stays within MAX_MATERIALIZED_DAYS, otherwise it's rebuilt
+     * with these days alone.
+     */
+    private void materializeDays(int fromDay, int toDay) {
+        if (fromDay >= firstDay && toDay <= horizonDay) {
+            return;
+        }
+
+        ConnectionBuffer newConnections = new ConnectionBuffer();
+        if (Math.max(toDay, horizonDay) - Math.min(fromDay, firstDay) >= MAX_MATERIALIZED_DAYS) {
+            numOfConnections = 0;
+            firstDay = fromDay;
+            horizonDay = toDay;
+            for (int i = 0; i < tripOfferParts.size(); i++) {
+                addOccurrences(newConnections, i, fromDay, toDay);
+            }
+        } else {
+            for (int i = 0; i < tripOfferParts.size(); i++) {
+                if (fromDay < firstDay) {
+                    addOccurrences(newConnections, i, fromDay, firstDay - 1);
+                }
+                if (toDay > horizonDay) {
+                    addOccurrences(newConnections, i, horizonDay + 1, toDay);
+                }
+            }
+            firstDay = Math.min(firstDay, fromDay);
+            horizonDay = Math.max(horizonDay, toDay);
+        }
+        merge(newConnections);
+    }
+
+    /**
+     * Adds a connection for every occurrence of the part which departs between fromDay and toDay (inclusive).
+     */
+    private void addOccurrences(ConnectionBuffer buffer, int partIndex, int fromDay, int toDay) {
+        TripOfferPart tripOfferPart = tripOfferParts.get(partIndex);
+        Recurrence recurrence = tripOfferPart.getRecurrences();
+        int dayStart = tripOfferPart.getDayStart();
+        int departureMinuteInDay = tripOfferPart.getDepartureMinute() % TimeDay.MINUTES_IN_DAY;
+        int durationInMinutes = tripOfferPart.getArrivalMinute() - tripOfferPart.getDepartureMinute();
+
+        int day = dayStart;
+        if (day < fromDay) {
+            if (recurrence.equals(Recurrence.ONE_TIME)) {
+                return;
+            }
+            int skippedRecurrences = (fromDay - dayStart + recurrence.getValue() - 1) / recurrence.getValue();
+            day = dayStart + skippedRecurrences * recurrence.getValue();
+        }
+
+        while (day <= toDay) {
+            int departureMinute = TimeDay.toMinutesAtDayStart(day) + departureMinuteInDay;
+            buffer.add(departureMinute,
+                    departureMinute + durationInMinutes,
+                    tripOfferPart.getSourceStop().getID(),
+                    tripOfferPart.getDestinationStop().getID(),
+                    partIndex);
+            if (recurrence.equals(Recurrence.ONE_TIME)) {
+                break;
+            }
+            day += recurrence.getValue();
+        }
+    }
+
+    /**
+     * Sorts the new connections and merges them with the existing ones in a single pass.
+     */
+    private void merge(ConnectionBuffer newConnections) {
+        if (newConnections.size == 0) {
+            return;
+        }
+        newConnections.sort();
+
+        int mergedSize = numOfConnections + newConnections.size;
+        int[] mergedDepartures = new int[Math.max(mergedSize, INITIAL_CAPACITY)];
+        int[] mergedArrivals = new int[mergedDepartures.length];
+        int[] mergedSources = new int[mergedDepartures.length];
+        int[] mergedDestinations = new int[mergedDepartures.length];
+        int[] mergedPartIndexes = new int[mergedDepartures.length];
+
+        int oldIndex = 0;
+        int newIndex = 0;
+        for (int i = 0; i < mergedSize; i++) {
+            boolean takeOld = newIndex == newConnections.size
+                    || (oldIndex < numOfConnections && departureMinutes[oldIndex] <= newConnections.departureMinutes[newIndex]);
+            if (takeOld) {
+                mergedDepartures[i] = departureMinutes[oldIndex];
+                mergedArrivals[i] = arrivalMinutes[oldIndex];
+                mergedSources[i] = sourceStopIDs[oldIndex];
+                mergedDestinations[i] = destinationStopIDs[oldIndex];
+                mergedPartIndexes[i] = partIndexes[oldIndex];
+                oldIndex++;
+            } else {
+                mergedDepartures[i] = newConnections.departureMinutes[newIndex];
+                mergedArrivals[i] = newConnections.arrivalMinutes[newIndex];
+                mergedSources[i] = newConnections.sourceStopIDs[newIndex];
+                mergedDestinations[i] = newConnections.destinationStopIDs[newIndex];
+                mergedPartIndexes[i] = newConnections.partIndexes[newIndex];
+                newIndex++;
+            }
+        }
+
+        this.departureMinutes = mergedDepartures;
+        this.arrivalMinutes = mergedArrivals;
+        this.sourceStopIDs = mergedSources;
+        this.destinationStopIDs = mergedDestinations;
+        this.partIndexes = mergedPartIndexes;
+        this.numOfConnections = mergedSize;
+    }
+
+    /**
+     * A growable set of parallel arrays for collecting connections before they are merged into the timetable.
+     */
+    private static class ConnectionBuffer {
+        private int size;
+        private int[] departureMinutes = new int[INITIAL_CAPACITY];
+        private int[] arrivalMinutes = new int[INITIAL_CAPACITY];
+        private int[] sourceStopIDs = new int[INITIAL_CAPACITY];
+        private int[] destinationStopIDs = new int[INITIAL_CAPACITY];
+        private int[] partIndexes = new int[INITIAL_CAPACITY];
+
+        private void add(int departureMinute, int arrivalMinute, int sourceStopID, int destinationStopID, int partIndex) {
+            if (size == departureMinutes.length) {
+                departureMinutes = Arrays.copyOf(departureMinutes, size * 2);
+                arrivalMinutes = Arrays.copyOf(arrivalMinutes, size * 2);
+                sourceStopIDs = Arrays.copyOf(sourceStopIDs, size * 2);
+                destinationStopIDs = Arrays.copyOf(destinationStopIDs, size * 2);
+                partIndexes = Arrays.copyOf(partIndexes, size * 2);
+            }
+            departureMinutes[size] = departureMinute;
+            arrivalMinutes[size] = arrivalMinute;
+            sourceStopIDs[size] = sourceStopID;
+            destinationStopIDs[size] = destinationStopID;
+            partIndexes[size] = partIndex;
+            size++;
+        }
+
+        /**
+         * Sorts the connections by departure time. The new connections are few, so sorting them through an index
+         * array is cheap.
+         */
+        private void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (first, second) -> Integer.compare(departureMinutes[first], departureMinutes[second]));
+
+            int[] sortedDepartures = new int[size];
+            int[] sortedArrivals = new int[size];
+            int[] sortedSources = new int[size];
+            int[] sortedDestinations = new int[size];
+            int[] sortedPartIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedDepartures[i] = departureMinutes[order[i]];
+                sortedArrivals[i] = arrivalMinutes[order[i]];
+                sortedSources[i] = sourceStopIDs[order[i]];
+                sortedDestinations[i] = destinationStopIDs[order[i]];
+                sortedPartIndexes[i] = partIndexes[order[i]];
+            }
+            departureMinutes = sortedDepartures;
+            arrivalMinutes = sortedArrivals;
+            sourceStopIDs = sortedSources;
+            destinationStopIDs = sortedDestinations;
+            partIndexes = sortedPartIndexes;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.map.component.Stop;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Time dependent Dijkstra over the compressed trip offers graph.
+ * Vertex - Stop
+ * Weight - The arrival time of the next occurrence of the TripOfferPart, departing after the rider got to the stop.
+ * A rider can always wait for a later occurrence, so getting to a stop earlier never makes the rest of the route
+ * later. That's why the first time a stop is taken out of the queue, its arrival time is the earliest possible one.
+ */
+public class EarliestArrivalSearch {
+
+    private static final int ANY_DRIVER = -1;
+
+    private CompressedTripOffersGraph compressedGraph;
+    private StopReachabilityIndex reachabilityIndex;
+
+    public EarliestArrivalSearch(TripOffersGraph tripOffersGraph) {
+        this.compressedGraph = tripOffersGraph.getCompressedGraph();
+        this.reachabilityIndex = tripOffersGraph.getReachabilityIndex();
+    }
+
+    /**
+     * Finds the route from source to destination which arrives the earliest.
+     * If the ride has to be continuous, the search is run once for every driver departing from the source, using
+     * only that driver's offers, and the earliest of these routes is returned.
+     * @param source - The stop to depart from.
+     * @param destination - The stop to arrive at.
+     * @param departureTime - The route departs at or after this time.
+     * @param isContinuous - true if the rider wants to ride with a single driver.
+     * @param requiredSeats - The number of seats the rider needs on every occurrence of the route.
+     * @return - The route arriving the earliest at destination, null if there is no such route.
+     */
+    public PossibleRoute findRoute(Stop source, Stop destination, TimeDay departureTime, boolean isContinuous,
+                                   int requiredSeats) {
+        if (!isContinuous) {
+            return findRoute(source, destination, departureTime, ANY_DRIVER, requiredSeats);
+        }
+
+        PossibleRoute earliestRoute = null;
+        for (int driverID : getDepartingDriverIDs(source)) {
+            PossibleRoute driverRoute = findRoute(source, destination, departureTime, driverID, requiredSeats);
+            if (driverRoute != null
+                    && (earliestRoute == null || driverRoute.getArrivalMinute() < earliestRoute.getArrivalMinute())) {
+                earliestRoute = driverRoute;
+            }
+        }
+        return earliestRoute;
+    }
+
+    /**
+     * The Dijkstra itself, over the compressed graph. Occurrences are only created for the route that was found, and
+     * occurrences without the required seats are skipped.
+     * @param driverID - If not ANY_DRIVER, only offers of the driver with this ID are used.
+     */
+    private PossibleRoute findRoute(Stop source, Stop destination, TimeDay departureTime, int driverID,
+                                    int requiredSeats) {
+        if (source.equals(destination)) {
+            return null;
+        }
+
+        int numOfStops = compressedGraph.getNumOfStops();
+        int[] arrivalMinutes = new int[numOfStops];
+        int[] arrivedWith = new int[numOfStops];
+        int[] departedAt = new int[numOfStops];
+        boolean[] isSettled = new boolean[numOfStops];
+        MinuteQueue queue = new MinuteQueue(false);
+
+        Arrays.fill(arrivalMinutes, Integer.MAX_VALUE);
+        arrivalMinutes[source.getID()] = departureTime.toMinutes();
+        queue.add(arrivalMinutes[source.getID()], source.getID());
+
+        while (!queue.isEmpty()) {
+            int currentStopID = queue.poll();
+            if (isSettled[currentStopID]) {
+                continue;
+            }
+            isSettled[currentStopID] = true;
+
+            if (currentStopID == destination.getID()) {
+                return buildRoute(arrivedWith, departedAt, source, destination);
+            }
+
+            int endEdge = compressedGraph.getEndEdge(currentStopID);
+            for (int edge = compressedGraph.getFirstEdge(currentStopID); edge < endEdge; edge++) {
+                int nextStopID = compressedGraph.getTargetStopID(edge);
+                if (isSettled[nextStopID] || (driverID != ANY_DRIVER && compressedGraph.getDriverID(edge) != driverID)
+                        || !reachabilityIndex.isReachable(nextStopID, destination.getID())) {
+                    continue;
+                }
+
+                int departureMinute = compressedGraph.getDepartureAfter(edge, arrivalMinutes[currentStopID], requiredSeats);
+                if (departureMinute != CompressedTripOffersGraph.NO_OCCURRENCE
+                        && departureMinute + compressedGraph.getDurationInMinutes(edge) < arrivalMinutes[nextStopID]) {
+                    arrivalMinutes[nextStopID] = departureMinute + compressedGraph.getDurationInMinutes(edge);
+                    arrivedWith[nextStopID] = edge;
+                    departedAt[nextStopID] = departureMinute;
+                    queue.add(arrivalMinutes[nextStopID], nextStopID);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Walks back from the destination through the edges used to arrive at each stop.
+     */
+    private PossibleRoute buildRoute(int[] arrivedWith, int[] departedAt, Stop source, Stop destination) {
+        List<TripOfferPartOccurrence> occurrences = new ArrayList<>();
+        int currentStopID = destination.getID();
+        while (currentStopID != source.getID()) {
+            TripOfferPartOccurrence occurrence =
+                    compressedGraph.getOccurrence(arrivedWith[currentStopID], departedAt[currentStopID]);
+            occurrences.add(occurrence);
+            currentStopID = occurrence.getSourceStop().getID();
+        }
+        Collections.reverse(occurrences);
+
+        PossibleRoute route = new PossibleRoute();
+        occurrences.forEach(route::add);
+        return route;
+    }
+
+    private Set<Integer> getDepartingDriverIDs(Stop source) {
+        Set<Integer> driverIDs = new LinkedHashSet<>();
+        int endEdge = compressedGraph.getEndEdge(source.getID());
+        for (int edge = compressedGraph.getFirstEdge(source.getID()); edge < endEdge; edge++) {
+            driverIDs.add(compressedGraph.getDriverID(edge));
+        }
+        return driverIDs;
+    }
+}
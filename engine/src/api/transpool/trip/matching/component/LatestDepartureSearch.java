@@ -0,0 +1,134 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.map.component.Stop;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Time dependent Dijkstra over the trip offers graph, running backwards in time - the mirror of EarliestArrivalSearch.
+ * Starts at the destination stop at the requested arrival time and walks the incoming edges of each stop, in the
+ * reversed compressed graph.
+ * The value of a stop is the latest time a rider can leave it and still make it to the destination on time, so the
+ * first time a stop is taken out of the queue its departure time is the latest possible one.
+ */
+public class LatestDepartureSearch {
+
+    private static final int ANY_DRIVER = -1;
+
+    private CompressedTripOffersGraph reversedGraph;
+    private StopReachabilityIndex reachabilityIndex;
+
+    public LatestDepartureSearch(TripOffersGraph tripOffersGraph) {
+        this.reversedGraph = tripOffersGraph.getReversedCompressedGraph();
+        this.reachabilityIndex = tripOffersGraph.getReachabilityIndex();
+    }
+
+    /**
+     * Finds the route from source to destination which departs the latest and arrives by the arrival time.
+     * If the ride has to be continuous, the search is run once for every driver arriving at the destination, using
+     * only that driver's offers, and the latest of these routes is returned.
+     * @param source - The stop to depart from.
+     * @param destination - The stop to arrive at.
+     * @param arrivalTime - The route arrives at or before this time.
+     * @param isContinuous - true if the rider wants to ride with a single driver.
+     * @param requiredSeats - The number of seats the rider needs on every occurrence of the route.
+     * @return - The route departing the latest from source, null if there is no such route.
+     */
+    public PossibleRoute findRoute(Stop source, Stop destination, TimeDay arrivalTime, boolean isContinuous,
+                                   int requiredSeats) {
+        if (!isContinuous) {
+            return findRoute(source, destination, arrivalTime, ANY_DRIVER, requiredSeats);
+        }
+
+        PossibleRoute latestRoute = null;
+        for (int driverID : getArrivingDriverIDs(destination)) {
+            PossibleRoute driverRoute = findRoute(source, destination, arrivalTime, driverID, requiredSeats);
+            if (driverRoute != null
+                    && (latestRoute == null || driverRoute.getDepartureMinute() > latestRoute.getDepartureMinute())) {
+                latestRoute = driverRoute;
+            }
+        }
+        return latestRoute;
+    }
+
+    /**
+     * The backwards Dijkstra itself, over the reversed compressed graph. Occurrences are only created for the route
+     * that was found, and occurrences without the required seats are skipped.
+     * @param driverID - If not ANY_DRIVER, only offers of the driver with this ID are used.
+     */
+    private PossibleRoute findRoute(Stop source, Stop destination, TimeDay arrivalTime, int driverID,
+                                    int requiredSeats) {
+        if (source.equals(destination)) {
+            return null;
+        }
+
+        int numOfStops = reversedGraph.getNumOfStops();
+        int[] departureMinutes = new int[numOfStops];
+        int[] departedWith = new int[numOfStops];
+        boolean[] isSettled = new boolean[numOfStops];
+        MinuteQueue queue = new MinuteQueue(true);
+
+        Arrays.fill(departureMinutes, Integer.MIN_VALUE);
+        departureMinutes[destination.getID()] = arrivalTime.toMinutes();
+        queue.add(departureMinutes[destination.getID()], destination.getID());
+
+        while (!queue.isEmpty()) {
+            int currentStopID = queue.poll();
+            if (isSettled[currentStopID]) {
+                continue;
+            }
+            isSettled[currentStopID] = true;
+
+            if (currentStopID == source.getID()) {
+                return buildRoute(departedWith, departureMinutes, source, destination);
+            }
+
+            int endEdge = reversedGraph.getEndEdge(currentStopID);
+            for (int edge = reversedGraph.getFirstEdge(currentStopID); edge < endEdge; edge++) {
+                int previousStopID = reversedGraph.getTargetStopID(edge);
+                if (isSettled[previousStopID] || (driverID != ANY_DRIVER && reversedGraph.getDriverID(edge) != driverID)
+                        || !reachabilityIndex.isReachable(source.getID(), previousStopID)) {
+                    continue;
+                }
+
+                int departureMinute = reversedGraph.getDepartureBefore(edge, departureMinutes[currentStopID], requiredSeats);
+                if (departureMinute != CompressedTripOffersGraph.NO_OCCURRENCE
+                        && departureMinute > departureMinutes[previousStopID]) {
+                    departureMinutes[previousStopID] = departureMinute;
+                    departedWith[previousStopID] = edge;
+                    queue.add(departureMinute, previousStopID);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Walks forward from the source through the edges used to leave each stop.
+     */
+    private PossibleRoute buildRoute(int[] departedWith, int[] departureMinutes, Stop source, Stop destination) {
+        PossibleRoute route = new PossibleRoute();
+        int currentStopID = source.getID();
+        while (currentStopID != destination.getID()) {
+            TripOfferPartOccurrence occurrence =
+                    reversedGraph.getOccurrence(departedWith[currentStopID], departureMinutes[currentStopID]);
+            route.add(occurrence);
+            currentStopID = occurrence.getDestinationStop().getID();
+        }
+        return route;
+    }
+
+    private Set<Integer> getArrivingDriverIDs(Stop destination) {
+        Set<Integer> driverIDs = new LinkedHashSet<>();
+        int endEdge = reversedGraph.getEndEdge(destination.getID());
+        for (int edge = reversedGraph.getFirstEdge(destination.getID()); edge < endEdge; edge++) {
+            driverIDs.add(reversedGraph.getDriverID(edge));
+        }
+        return driverIDs;
+    }
+}
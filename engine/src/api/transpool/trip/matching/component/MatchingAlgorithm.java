@@ -0,0 +1,43 @@
+package api.transpool.trip.matching.component;
+
+
+/**
+ * An enum holding the algorithms the matching engine can use for finding routes.
+ */
+public enum MatchingAlgorithm {
+    ALL_ROUTES("All routes"),
+    EARLIEST_ARRIVAL("Earliest arrival"),
+    BEST_TRADE_OFFS("Best trade-offs"),
+    CONNECTION_SCAN("Connection scan");
+
+    private String name;
+
+    MatchingAlgorithm(String name) {
+        this.name = name;
+    }
+
+    public static MatchingAlgorithm getMatchingAlgorithm(String algorithm) {
+        if (algorithm == null) {
+            return EARLIEST_ARRIVAL;
+        }
+        switch (algorithm) {
+            case "All routes":
+                return ALL_ROUTES;
+            case "Best trade-offs":
+                return BEST_TRADE_OFFS;
+            case "Connection scan":
+                return CONNECTION_SCAN;
+            default:
+                return EARLIEST_ARRIVAL;
+        }
+    }
+
+    /**
+     * Gets the name of the MatchingAlgorithm
+     * @return - the name of the enum as a string.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,77 @@
+package api.transpool.trip.matching.component;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of (minute, stop ID) entries, packed into longs so the queue doesn't create an object per entry.
+ * The minute is in the high half of the long, so comparing the longs compares the minutes first.
+ */
+class MinuteQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long STOP_ID_MASK = 0xFFFFFFFFL;
+
+    private boolean isLatestFirst;
+    private long[] heap;
+    private int size;
+
+    /**
+     * @param isLatestFirst - true if the latest minute should come out of the queue first, false for the earliest.
+     */
+    MinuteQueue(boolean isLatestFirst) {
+        this.isLatestFirst = isLatestFirst;
+        this.heap = new long[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(int minute, int stopID) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int key = isLatestFirst ? Integer.MAX_VALUE - minute : minute;
+        long entry = ((long) key << 32) | stopID;
+
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = entry;
+    }
+
+    /**
+     * Removes the first entry of the queue.
+     * @return - The stop ID of the removed entry.
+     */
+    int poll() {
+        long first = heap[0];
+        long last = heap[--size];
+
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = last;
+
+        return (int) (first & STOP_ID_MASK);
+    }
+}
@@ -0,0 +1,193 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.map.component.Stop;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.TripOfferPart;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
+import api.transpool.user.account.TransPoolDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Multi criteria label setting search over the trip offers graph.
+ * A label is a partial route ending at a stop, measured by its arrival time, total price and number of driver changes.
+ * Each stop keeps only the labels that are not dominated by another label at that stop, so a partial route which is
+ * worse in every criteria than one already found is dropped the moment it is created, instead of being expanded.
+ * The labels left at the destination are the Pareto optimal routes.
+ */
+public class ParetoRouteSearch {
+
+    private static final Comparator<Label> LABEL_ORDER = Comparator
+            .comparingInt((Label label) -> label.arrivalMinute)
+            .thenComparingInt(label -> label.totalPrice)
+            .thenComparingInt(label -> label.numOfDriverChanges);
+
+    private TripOffersGraph tripOffersGraph;
+
+    public ParetoRouteSearch(TripOffersGraph tripOffersGraph) {
+        this.tripOffersGraph = tripOffersGraph;
+    }
+
+    /**
+     * Finds the routes from source to destination that are not dominated by any other route.
+     * @param source - The stop to depart from.
+     * @param destination - The stop to arrive at.
+     * @param departureTime - The routes depart at or after this time.
+     * @param isContinuous - true if the rider wants to ride with a single driver - labels with a driver change are dropped.
+     * @param requiredSeats - The number of seats the rider needs on every occurrence of the route.
+     * @return - The Pareto optimal routes, earliest arrival first.
+     */
+    public PossibleRoutesList findRoutes(Stop source, Stop destination, TimeDay departureTime, boolean isContinuous,
+                                         int requiredSeats) {
+        PossibleRoutesList possibleRoutes = new PossibleRoutesList();
+        if (source.equals(destination)) {
+            return possibleRoutes;
+        }
+
+        List<List<Label>> stopLabels = new ArrayList<>();
+        for (int i = 0; i < tripOffersGraph.getNumOfStops(); i++) {
+            stopLabels.add(new ArrayList<>());
+        }
+        PriorityQueue<Label> queue = new PriorityQueue<>(LABEL_ORDER);
+
+        Label sourceLabel = new Label(source.getID(), departureTime.toMinutes());
+        stopLabels.get(source.getID()).add(sourceLabel);
+        queue.add(sourceLabel);
+
+        while (!queue.isEmpty()) {
+            Label currentLabel = queue.poll();
+            if (currentLabel.isDominated || currentLabel.stopID == destination.getID()) {
+                continue;
+            }
+
+            for (TripOfferPart nextOffer : tripOffersGraph.getOutgoingParts(currentLabel.stopID)) {
+                if (!tripOffersGraph.isReachable(nextOffer.getDestinationStop(), destination)) {
+                    continue;
+                }
+                int occurrenceDay = nextOffer.getDayOfOccurrenceAfter(currentLabel.arrivalMinute, requiredSeats);
+                if (occurrenceDay == TripOfferPart.NO_OCCURRENCE_DAY) {
+                    continue;
+                }
+
+                Label nextLabel = new Label(currentLabel, nextOffer, occurrenceDay);
+                if (isContinuous && nextLabel.numOfDriverChanges > 0) {
+                    continue;
+                }
+                //A label that is already worse than a full route to the destination can't lead anywhere better.
+                if (isDominated(nextLabel, stopLabels.get(destination.getID()))) {
+                    continue;
+                }
+                if (addIfNotDominated(nextLabel, stopLabels.get(nextLabel.stopID))) {
+                    queue.add(nextLabel);
+                }
+            }
+        }
+
+        return stopLabels.get(destination.getID())
+                .stream()
+                .sorted(LABEL_ORDER)
+                .map(Label::toPossibleRoute)
+                .collect(Collectors.toCollection(PossibleRoutesList::new));
+    }
+
+    private boolean isDominated(Label label, List<Label> labels) {
+        for (Label other : labels) {
+            if (other.dominates(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the label to the stop's labels if none of them dominates it, and drops the labels it dominates.
+     * @return - true if the label was added.
+     */
+    private boolean addIfNotDominated(Label label, List<Label> labels) {
+        if (isDominated(label, labels)) {
+            return false;
+        }
+        Iterator<Label> iterator = labels.iterator();
+        while (iterator.hasNext()) {
+            Label other = iterator.next();
+            if (label.dominates(other)) {
+                other.isDominated = true;
+                iterator.remove();
+            }
+        }
+        labels.add(label);
+        return true;
+    }
+
+    /**
+     * A partial route ending at a stop. Labels point to the label they were extended from, so partial routes share
+     * their beginning instead of copying it. A label holds the part and the day it arrived with rather than the
+     * occurrence, so occurrences are only created for the routes that are returned.
+     */
+    private static class Label {
+        private int stopID;
+        private int arrivalMinute;
+        private int totalPrice;
+        private int numOfDriverChanges;
+        private TransPoolDriver lastDriver;
+
+        private TripOfferPart arrivedWith;
+        private int occurrenceDay;
+        private Label previous;
+        private boolean isDominated;
+
+        private Label(int stopID, int departureMinute) {
+            this.stopID = stopID;
+            this.arrivalMinute = departureMinute;
+            this.totalPrice = 0;
+            this.numOfDriverChanges = 0;
+        }
+
+        private Label(Label previous, TripOfferPart arrivedWith, int occurrenceDay) {
+            this.stopID = arrivedWith.getDestinationStop().getID();
+            this.arrivalMinute = arrivedWith.getArrivalMinute(occurrenceDay);
+            this.totalPrice = previous.totalPrice + arrivedWith.getPrice();
+            this.lastDriver = arrivedWith.getTransPoolDriver();
+            this.numOfDriverChanges = previous.numOfDriverChanges;
+            if (previous.lastDriver != null && !previous.lastDriver.equals(lastDriver)) {
+                this.numOfDriverChanges++;
+            }
+            this.arrivedWith = arrivedWith;
+            this.occurrenceDay = occurrenceDay;
+            this.previous = previous;
+        }
+
+        /**
+         * A label dominates another label at the same stop if it is at least as good in every criteria.
+         * The number of changes of the rest of the route depends on the last driver, so a label with a different
+         * last driver has to be better by at least one change to make up for it.
+         */
+        private boolean dominates(Label other) {
+            int changesToMatchOther = numOfDriverChanges;
+            if (lastDriver != null && !lastDriver.equals(other.lastDriver)) {
+                changesToMatchOther++;
+            }
+            return arrivalMinute <= other.arrivalMinute
+                    && totalPrice <= other.totalPrice
+                    && changesToMatchOther <= other.numOfDriverChanges;
+        }
+
+        private PossibleRoute toPossibleRoute() {
+            List<TripOfferPartOccurrence> occurrences = new ArrayList<>();
+            for (Label label = this; label.arrivedWith != null; label = label.previous) {
+                occurrences.add(label.arrivedWith.getOrCreateOccurrence(label.occurrenceDay));
+            }
+            Collections.reverse(occurrences);
+
+            PossibleRoute route = new PossibleRoute();
+            occurrences.forEach(route::add);
+            return route;
+        }
+    }
+}
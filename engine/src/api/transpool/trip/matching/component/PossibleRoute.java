@@ -10,6 +10,8 @@ import java.util.List;
 
 /**
  * An array list of TimeSubTripOffers and the summary details such as total price, fuel consumption etc.
+ * The departure and arrival times are kept as minutes (see TimeDay.toMinutes()), so copying and extending a route
+ * during the searches doesn't create any TimeDay.
  */
 public class PossibleRoute {
 
@@ -20,10 +22,11 @@ public class PossibleRoute {
     private double totalFuelConsumption;
     private int totalTripDuration;
     private boolean isContinuous;
+    private int numOfDriverChanges;
 
     private double averageFuelConsumption;
-    private TimeDay arrivalTime;
-    private TimeDay departureTime;
+    private int arrivalMinute;
+    private int departureMinute;
 
     public PossibleRoute() {
         this.route = new ArrayList<>();
@@ -33,6 +36,7 @@ public class PossibleRoute {
         this.totalFuelConsumption = 0;
         this.averageFuelConsumption = 0;
         this.isContinuous = false;
+        this.numOfDriverChanges = 0;
     }
 
     public PossibleRoute(PossibleRoute other) {
@@ -43,34 +47,55 @@ public class PossibleRoute {
         this.totalFuelConsumption = other.totalFuelConsumption;
         this.averageFuelConsumption = other.averageFuelConsumption;
         this.isContinuous = other.isContinuous;
-        this.arrivalTime = new TimeDay(other.arrivalTime);
-        this.departureTime = new TimeDay(other.departureTime);
+        this.numOfDriverChanges = other.numOfDriverChanges;
+        this.arrivalMinute = other.arrivalMinute;
+        this.departureMinute = other.departureMinute;
     }
 
     public boolean add(TripOfferPart offer, TimeDay departureTime) {
-        TripOfferPartOccurrence offerOccurrence = offer.getOccurrenceAfter(departureTime);
+        return add(offer, departureTime.toMinutes(), TripOfferPartOccurrence.SEATS_PER_RIDER);
+    }
+
+    /**
+     * Adds the first occurrence of the offer departing after departureMinute with enough free seats to the route.
+     * @param offer - The offer to add.
+     * @param departureMinute - The occurrence departs at or after this time, in minutes.
+     * @param requiredSeats - The number of seats the rider needs on the occurrence.
+     * @return - true if such an occurrence was found and added.
+     */
+    public boolean add(TripOfferPart offer, int departureMinute, int requiredSeats) {
+        TripOfferPartOccurrence offerOccurrence = offer.getOccurrenceAfter(departureMinute, requiredSeats);
         if (offerOccurrence != null) {
-            if (length == 0) {
-                return this.addToEmpty(offerOccurrence);
-            } else {
-                return this.addToNotEmpty(offerOccurrence);
-            }
+            return this.add(offerOccurrence);
         } else {
             return false;
         }
     }
 
+    /**
+     * Adds an occurrence which was already found by the matching engine to the end of the route.
+     * @param offerOccurrence - The occurrence to add.
+     * @return - true if the occurrence was added.
+     */
+    public boolean add(TripOfferPartOccurrence offerOccurrence) {
+        if (length == 0) {
+            return this.addToEmpty(offerOccurrence);
+        } else {
+            return this.addToNotEmpty(offerOccurrence);
+        }
+    }
+
     private boolean addToEmpty(TripOfferPartOccurrence offerOccurrence) {
         this.route.add(offerOccurrence);
         this.length++;
 
         this.isContinuous = true;
-        this.departureTime = new TimeDay(offerOccurrence.getOccurrenceStart());
+        this.departureMinute = offerOccurrence.getDepartureMinute();
         this.totalPrice += offerOccurrence.getPrice();
         this.totalFuelConsumption += offerOccurrence.getAverageFuelConsumption();
         this.totalTripDuration += offerOccurrence.getTripDurationInMinutes();
         this.averageFuelConsumption = totalFuelConsumption / length;
-        this.arrivalTime = new TimeDay(offerOccurrence.getArrivalTime());
+        this.arrivalMinute = offerOccurrence.getArrivalMinute();
         return true;
     }
 
@@ -82,15 +107,22 @@ public class PossibleRoute {
         this.totalFuelConsumption += offerOcurrence.getAverageFuelConsumption();
         this.totalTripDuration += offerOcurrence.getTripDurationInMinutes();
         this.averageFuelConsumption = totalFuelConsumption / length;
-        this.arrivalTime = new TimeDay(offerOcurrence.getArrivalTime());
+        this.arrivalMinute = offerOcurrence.getArrivalMinute();
 
         //Checking if the ride is continuous throughout the ride.
-        this.isContinuous = isContinuous && route.get(length - 2).getTransPoolDriver()
+        boolean isSameDriver = route.get(length - 2).getTransPoolDriver()
                 .equals(route.get(length - 1).getTransPoolDriver());
+        this.isContinuous = isContinuous && isSameDriver;
+        if (!isSameDriver) {
+            this.numOfDriverChanges++;
+        }
         return true;
     }
 
     public void remove(TripOfferPart offer) {
+        if (length > 1 && !route.get(length - 1).getTransPoolDriver().equals(route.get(length - 2).getTransPoolDriver())) {
+            this.numOfDriverChanges--;
+        }
         this.route.remove(length - 1);
         this.length--;
         this.totalPrice -= offer.getPrice();
@@ -101,11 +133,11 @@ public class PossibleRoute {
         }
         if(length > 0) {
             this.averageFuelConsumption = totalFuelConsumption / length;
-            this.arrivalTime = route.get(length - 1).getArrivalTime();
+            this.arrivalMinute = route.get(length - 1).getArrivalMinute();
         } else {
             this.averageFuelConsumption = 0;
-            this.arrivalTime = null;
-            this.departureTime = null;
+            this.arrivalMinute = 0;
+            this.departureMinute = 0;
         }
     }
 
@@ -146,12 +178,20 @@ public class PossibleRoute {
         return isContinuous;
     }
 
+    public int getNumOfDriverChanges() {
+        return numOfDriverChanges;
+    }
+
     public int getTotalTripDuration() {
         return totalTripDuration;
     }
 
     public TimeDay getArrivalTime() {
-        return arrivalTime;
+        return length == 0 ? null : TimeDay.fromMinutes(arrivalMinute);
+    }
+
+    public int getArrivalMinute() {
+        return arrivalMinute;
     }
 
     public double getTotalFuelConsumption() {
@@ -159,15 +199,19 @@ public class PossibleRoute {
     }
 
     public TimeDay getDepartureTime() {
-        return departureTime;
+        return length == 0 ? null : TimeDay.fromMinutes(departureMinute);
+    }
+
+    public int getDepartureMinute() {
+        return departureMinute;
     }
 
     public int getDayStart() {
-        return departureTime.getDay();
+        return TimeDay.toDay(departureMinute);
     }
 
     public int getDayEnd() {
-        return arrivalTime.getDay();
+        return TimeDay.toDay(arrivalMinute);
     }
 
     public PossibleRouteDTO getDetails() {
@@ -184,7 +228,7 @@ public class PossibleRoute {
         str.append("\nTRIP SUMMARY:\n");
         str.append("Total price: ").append(totalPrice).append("\n");
         str.append("Average fuel consumption: ").append(averageFuelConsumption).append("\n");
-        str.append("Time of arrival: ").append(arrivalTime);
+        str.append("Time of arrival: ").append(getArrivalTime());
         return str.toString();
     }
 }
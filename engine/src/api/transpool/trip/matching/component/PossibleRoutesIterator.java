@@ -0,0 +1,131 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.map.component.Stop;
+import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.TripOfferPart;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * The depth first traversal of the trip offers graph, one route at a time.
+ * The recursion is kept on an explicit stack, so the traversal can stop after any route it finds and continue from
+ * the same place when the next route is asked for. Nothing is searched beyond the routes that are actually taken.
+ * A partial route which doesn't pass the route predicate is not extended any further, so the predicate has to be
+ * one that a route can't start passing by adding more parts to it - e.g. a departure time or a continuity check.
+ * Stops that can't reach the destination at all are never gone into, and occurrences without the required seats are
+ * skipped for the next recurrence of the part.
+ */
+public class PossibleRoutesIterator implements Iterator<PossibleRoute> {
+
+    private CompressedTripOffersGraph compressedGraph;
+    private StopReachabilityIndex reachabilityIndex;
+    private int destinationID;
+    private Predicate<PossibleRoute> routePredicate;
+    private int requiredSeats;
+
+    private boolean[] beingVisited;
+    private PossibleRoute currentRoute;
+    private Deque<StopFrame> stack;
+    private PossibleRoute nextRoute;
+
+    public PossibleRoutesIterator(TripOffersGraph tripOffersGraph, Stop source, Stop destination,
+                                  TimeDay departureTime, Predicate<PossibleRoute> routePredicate, int requiredSeats) {
+        this.compressedGraph = tripOffersGraph.getCompressedGraph();
+        this.reachabilityIndex = tripOffersGraph.getReachabilityIndex();
+        this.destinationID = destination.getID();
+        this.routePredicate = routePredicate;
+        this.requiredSeats = requiredSeats;
+        this.beingVisited = new boolean[compressedGraph.getNumOfStops()];
+        this.currentRoute = new PossibleRoute();
+        this.stack = new ArrayDeque<>();
+
+        if (!source.equals(destination)) {
+            beingVisited[source.getID()] = true;
+            stack.push(new StopFrame(source.getID(), compressedGraph.getFirstEdge(source.getID()),
+                    departureTime.toMinutes(), null));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRoute == null) {
+            nextRoute = findNextRoute();
+        }
+        return nextRoute != null;
+    }
+
+    @Override
+    public PossibleRoute next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        PossibleRoute route = nextRoute;
+        nextRoute = null;
+        return route;
+    }
+
+    /**
+     * Continues the traversal from where it stopped until the next route to the destination is found.
+     * "if (currentRoute.add(nextOffer, frame.departureMinute, requiredSeats))" is where the magic happens.
+     * @return - The next route, null if the traversal is over.
+     */
+    private PossibleRoute findNextRoute() {
+        while (!stack.isEmpty()) {
+            StopFrame frame = stack.peek();
+
+            if (frame.nextEdge == compressedGraph.getEndEdge(frame.stopID)) {
+                stack.pop();
+                beingVisited[frame.stopID] = false;
+                if (frame.arrivedWith != null) {
+                    currentRoute.remove(frame.arrivedWith);
+                }
+                continue;
+            }
+
+            int edge = frame.nextEdge++;
+            int nextStopID = compressedGraph.getTargetStopID(edge);
+            if (beingVisited[nextStopID] || !reachabilityIndex.isReachable(nextStopID, destinationID)) {
+                continue;
+            }
+            TripOfferPart nextOffer = compressedGraph.getTripOfferPart(edge);
+            if (!currentRoute.add(nextOffer, frame.departureMinute, requiredSeats)) {
+                continue;
+            }
+            if (!routePredicate.test(currentRoute)) {
+                currentRoute.remove(nextOffer);
+                continue;
+            }
+
+            if (nextStopID == destinationID) {
+                PossibleRoute foundRoute = new PossibleRoute(currentRoute);
+                currentRoute.remove(nextOffer);
+                return foundRoute;
+            }
+            beingVisited[nextStopID] = true;
+            stack.push(new StopFrame(nextStopID, compressedGraph.getFirstEdge(nextStopID),
+                    currentRoute.getArrivalMinute(), nextOffer));
+        }
+        return null;
+    }
+
+    /**
+     * A stop on the current route, and the next of its outgoing edges in the compressed graph to traverse.
+     */
+    private static class StopFrame {
+        private int stopID;
+        private int nextEdge;
+        private int departureMinute;
+        private TripOfferPart arrivedWith;
+
+        private StopFrame(int stopID, int nextEdge, int departureMinute, TripOfferPart arrivedWith) {
+            this.stopID = stopID;
+            this.nextEdge = nextEdge;
+            this.departureMinute = departureMinute;
+            this.arrivedWith = arrivedWith;
+        }
+    }
+}
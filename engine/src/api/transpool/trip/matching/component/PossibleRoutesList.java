@@ -21,13 +21,13 @@ public class PossibleRoutesList extends ArrayList<PossibleRoute>{
 
     public PossibleRoutesList sortLeastChangesFirst() {
         return this.stream()
-                .sorted(Comparator.comparingInt(PossibleRoute::getTotalPrice))
+                .sorted(Comparator.comparingInt(PossibleRoute::getNumOfDriverChanges))
                 .collect(Collectors.toCollection(PossibleRoutesList::new));
     }
 
     public PossibleRoutesList sortFastestFirst() {
         return this.stream()
-                .sorted(Comparator.comparing(PossibleRoute::getArrivalTime))
+                .sorted(Comparator.comparingInt(PossibleRoute::getArrivalMinute))
                 .collect(Collectors.toCollection(PossibleRoutesList::new));
     }
 
@@ -47,7 +47,7 @@ public class PossibleRoutesList extends ArrayList<PossibleRoute>{
     public PossibleRoute getFastest() {
         return this
                 .stream()
-                .min(Comparator.comparing(PossibleRoute::getArrivalTime))
+                .min(Comparator.comparingInt(PossibleRoute::getArrivalMinute))
                 .get();
     }
 
@@ -58,7 +58,13 @@ public class PossibleRoutesList extends ArrayList<PossibleRoute>{
                 .get();
     }
 
+    /**
+     * @return - The route with the fewest driver changes, null if the list is empty.
+     */
     public PossibleRoute getLeastChanges() {
-        return null;
+        return this
+                .stream()
+                .min(Comparator.comparingInt(PossibleRoute::getNumOfDriverChanges))
+                .orElse(null);
     }
 }
@@ -0,0 +1,150 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.trip.offer.component.TripOfferPart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * The depth first traversal of the trip offers graph, split between the threads of a fork/join pool.
+ * A task is a partial route ending at a stop. Near the source, every part leaving the stop becomes a task of its own,
+ * with its own copy of the route and of the visited stops, so the tasks share nothing but the count of routes found.
+ * Deeper down, or once the pool has enough queued work, a task traverses its branch by itself.
+ * The routes of the sub tasks are joined in the order of the parts, so the routes found are listed in the order the
+ * sequential traversal lists them. Which routes are found when the traversal is stopped early is explained in
+ * TripOffersGraph.getAllPossibleRoutes().
+ */
+class RouteEnumerationTask extends RecursiveTask<List<PossibleRoute>> {
+
+    private static final int MAX_SPLIT_DEPTH = 3;
+    private static final int MAX_SURPLUS_TASKS = 3;
+
+    private CompressedTripOffersGraph compressedGraph;
+    private StopReachabilityIndex reachabilityIndex;
+    private int destinationID;
+    private Predicate<PossibleRoute> routePredicate;
+    private int maximumRoutes;
+    private int requiredSeats;
+    private AtomicInteger numOfRoutesFound;
+
+    private int stopID;
+    private int departureMinute;
+    private int depth;
+    private boolean[] beingVisited;
+    private PossibleRoute currentRoute;
+
+    /**
+     * The task of the whole traversal, starting at the source.
+     * @param maximumRoutes - The tasks stop going into new branches once this many routes were found.
+     */
+    RouteEnumerationTask(TripOffersGraph tripOffersGraph, int sourceID, int destinationID, int departureMinute,
+                         Predicate<PossibleRoute> routePredicate, int maximumRoutes, int requiredSeats) {
+        this.compressedGraph = tripOffersGraph.getCompressedGraph();
+        this.reachabilityIndex = tripOffersGraph.getReachabilityIndex();
+        this.destinationID = destinationID;
+        this.routePredicate = routePredicate;
+        this.maximumRoutes = maximumRoutes;
+        this.requiredSeats = requiredSeats;
+        this.numOfRoutesFound = new AtomicInteger(0);
+
+        this.stopID = sourceID;
+        this.departureMinute = departureMinute;
+        this.depth = 0;
+        this.beingVisited = new boolean[compressedGraph.getNumOfStops()];
+        this.beingVisited[sourceID] = true;
+        this.currentRoute = new PossibleRoute();
+    }
+
+    private RouteEnumerationTask(RouteEnumerationTask parent, int stopID) {
+        this.compressedGraph = parent.compressedGraph;
+        this.reachabilityIndex = parent.reachabilityIndex;
+        this.destinationID = parent.destinationID;
+        this.routePredicate = parent.routePredicate;
+        this.maximumRoutes = parent.maximumRoutes;
+        this.requiredSeats = parent.requiredSeats;
+        this.numOfRoutesFound = parent.numOfRoutesFound;
+
+        this.stopID = stopID;
+        this.depth = parent.depth + 1;
+        this.beingVisited = parent.beingVisited.clone();
+        this.beingVisited[stopID] = true;
+        this.currentRoute = new PossibleRoute(parent.currentRoute);
+        this.departureMinute = currentRoute.getArrivalMinute();
+    }
+
+    @Override
+    protected List<PossibleRoute> compute() {
+        if (stopID == destinationID) {
+            numOfRoutesFound.incrementAndGet();
+            return Collections.singletonList(currentRoute);
+        }
+
+        List<PossibleRoute> possibleRoutes = new ArrayList<>();
+        if (depth < MAX_SPLIT_DEPTH && getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS) {
+            List<RouteEnumerationTask> subTasks = new ArrayList<>();
+            int endEdge = compressedGraph.getEndEdge(stopID);
+            for (int edge = compressedGraph.getFirstEdge(stopID); edge < endEdge; edge++) {
+                TripOfferPart nextOffer = compressedGraph.getTripOfferPart(edge);
+                if (canGoTo(compressedGraph.getTargetStopID(edge)) && addToRoute(nextOffer, departureMinute)) {
+                    subTasks.add(new RouteEnumerationTask(this, compressedGraph.getTargetStopID(edge)));
+                    currentRoute.remove(nextOffer);
+                }
+            }
+            invokeAll(subTasks);
+            subTasks.forEach(subTask -> possibleRoutes.addAll(subTask.join()));
+        } else {
+            depthFirstTraversal(stopID, departureMinute, possibleRoutes);
+        }
+        return possibleRoutes;
+    }
+
+    /**
+     * The sequential traversal of the task's branch, the same as PossibleRoutesIterator.
+     */
+    private void depthFirstTraversal(int currentStopID, int currentMinute, List<PossibleRoute> possibleRoutes) {
+        int endEdge = compressedGraph.getEndEdge(currentStopID);
+        for (int edge = compressedGraph.getFirstEdge(currentStopID); edge < endEdge; edge++) {
+            int nextStopID = compressedGraph.getTargetStopID(edge);
+            TripOfferPart nextOffer = compressedGraph.getTripOfferPart(edge);
+            if (!canGoTo(nextStopID) || !addToRoute(nextOffer, currentMinute)) {
+                continue;
+            }
+
+            if (nextStopID == destinationID) {
+                possibleRoutes.add(new PossibleRoute(currentRoute));
+                numOfRoutesFound.incrementAndGet();
+            } else {
+                beingVisited[nextStopID] = true;
+                depthFirstTraversal(nextStopID, currentRoute.getArrivalMinute(), possibleRoutes);
+                beingVisited[nextStopID] = false;
+            }
+            currentRoute.remove(nextOffer);
+        }
+    }
+
+    private boolean canGoTo(int nextStopID) {
+        return numOfRoutesFound.get() < maximumRoutes
+                && !beingVisited[nextStopID]
+                && reachabilityIndex.isReachable(nextStopID, destinationID);
+    }
+
+    /**
+     * Adds the next offer to the current route, unless there's no occurrence of it with the required seats or the route
+     * doesn't pass the route predicate with it.
+     * @return - true if the offer was added.
+     */
+    private boolean addToRoute(TripOfferPart nextOffer, int currentMinute) {
+        if (!currentRoute.add(nextOffer, currentMinute, requiredSeats)) {
+            return false;
+        }
+        if (!routePredicate.test(currentRoute)) {
+            currentRoute.remove(nextOffer);
+            return false;
+        }
+        return true;
+    }
+}
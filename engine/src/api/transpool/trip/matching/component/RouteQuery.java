@@ -0,0 +1,54 @@
+package api.transpool.trip.matching.component;
+
+import java.util.Objects;
+
+/**
+ * The key of a matching query in the route query cache - everything the routes found for a trip request depend on.
+ */
+public class RouteQuery {
+    private int sourceID;
+    private int destinationID;
+    private int timeInMinutes;
+    private boolean isTimeOfArrival;
+    private boolean isContinuous;
+    private MatchingAlgorithm algorithm;
+    private int maximumMatches;
+
+    public RouteQuery(int sourceID, int destinationID, int timeInMinutes, boolean isTimeOfArrival,
+                      boolean isContinuous, MatchingAlgorithm algorithm, int maximumMatches) {
+        this.sourceID = sourceID;
+        this.destinationID = destinationID;
+        this.timeInMinutes = timeInMinutes;
+        this.isTimeOfArrival = isTimeOfArrival;
+        this.isContinuous = isContinuous;
+        this.algorithm = algorithm;
+        this.maximumMatches = maximumMatches;
+    }
+
+    public int getSourceID() {
+        return sourceID;
+    }
+
+    public int getDestinationID() {
+        return destinationID;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RouteQuery)) return false;
+        RouteQuery that = (RouteQuery) o;
+        return sourceID == that.sourceID &&
+                destinationID == that.destinationID &&
+                timeInMinutes == that.timeInMinutes &&
+                isTimeOfArrival == that.isTimeOfArrival &&
+                isContinuous == that.isContinuous &&
+                algorithm == that.algorithm &&
+                maximumMatches == that.maximumMatches;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sourceID, destinationID, timeInMinutes, isTimeOfArrival, isContinuous, algorithm, maximumMatches);
+    }
+}
@@ -0,0 +1,168 @@
+package api.transpool.trip.matching.component;
+
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the routes found for matching queries, the least recently used query is dropped first.
+ * An entry is dropped when it gets too old, when a new trip offer part could be a part of a new route for its query,
+ * when a seat is booked on one of its routes, and when seats are given back on an occurrence that could be a part of a
+ * route for its query.
+ * The generation counts the invalidations, so routes found while the graph was changing are not put in the cache.
+ * The lists of routes are copied in and out of the cache, so a caller changing its list doesn't change the cached one.
+ */
+public class RouteQueryCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final long DEFAULT_TIME_TO_LIVE_MILLIS = 5 * 60 * 1000;
+
+    private int maxEntries;
+    private long timeToLiveMillis;
+    private Map<RouteQuery, CachedRoutes> entries;
+
+    private long generation;
+    private int numOfHits;
+    private int numOfMisses;
+
+    public RouteQueryCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE_MILLIS);
+    }
+
+    public RouteQueryCache(int maxEntries, long timeToLiveMillis) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.entries = new LinkedHashMap<RouteQuery, CachedRoutes>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteQuery, CachedRoutes> eldest) {
+                return size() > RouteQueryCache.this.maxEntries;
+            }
+        };
+        this.generation = 0;
+        this.numOfHits = 0;
+        this.numOfMisses = 0;
+    }
+
+    /**
+     * @return - A copy of the routes found for the query, null if they are not in the cache.
+     */
+    public synchronized PossibleRoutesList get(RouteQuery query) {
+        CachedRoutes cachedRoutes = entries.get(query);
+        if (cachedRoutes != null && System.currentTimeMillis() - cachedRoutes.creationTimeMillis > timeToLiveMillis) {
+            entries.remove(query);
+            cachedRoutes = null;
+        }
+
+        if (cachedRoutes == null) {
+            numOfMisses++;
+            return null;
+        } else {
+            numOfHits++;
+            return cachedRoutes.copyRoutes();
+        }
+    }
+
+    /**
+     * Puts the routes found for the query in the cache, unless the cache was invalidated since they were searched for.
+     * @param generation - The generation of the cache before the routes were searched for.
+     */
+    public synchronized void put(RouteQuery query, PossibleRoutesList possibleRoutes, long generation) {
+        if (generation == this.generation) {
+            entries.put(query, new CachedRoutes(possibleRoutes));
+        }
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Drops the queries a new connection from source to destination can be a part of a route for - the queries whose
+     * source can reach the connection, and whose destination can be reached from it.
+     * @param reachabilityIndex - The reachability index, already updated with the new connection.
+     */
+    public synchronized void invalidate(StopReachabilityIndex reachabilityIndex, int sourceID, int destinationID) {
+        generation++;
+        removeQueriesThrough(reachabilityIndex, sourceID, destinationID);
+    }
+
+    /**
+     * Drops the queries the occurrences seats were given back on can be a part of a route for. The routes of a query
+     * searched while an occurrence was full don't go through it, so they can't be found by the occurrence - the test
+     * is the same as for a new connection.
+     * @param reachabilityIndex - The reachability index of the graph.
+     * @param releasedOccurrences - The occurrences seats were given back on.
+     */
+    public synchronized void invalidateReleased(StopReachabilityIndex reachabilityIndex,
+                                                Collection<TripOfferPartOccurrence> releasedOccurrences) {
+        generation++;
+        for (TripOfferPartOccurrence occurrence : releasedOccurrences) {
+            removeQueriesThrough(reachabilityIndex, occurrence.getSourceStop().getID(),
+                    occurrence.getDestinationStop().getID());
+        }
+    }
+
+    private void removeQueriesThrough(StopReachabilityIndex reachabilityIndex, int sourceID, int destinationID) {
+        entries.keySet().removeIf(query ->
+                reachabilityIndex.isReachable(query.getSourceID(), sourceID)
+                        && reachabilityIndex.isReachable(destinationID, query.getDestinationID()));
+    }
+
+    /**
+     * Drops the queries with a route going through one of the booked occurrences. Only for seats being taken - seats
+     * given back are dropped with invalidateReleased().
+     * @param bookedOccurrences - The occurrences a seat was booked on.
+     */
+    public synchronized void invalidate(Collection<TripOfferPartOccurrence> bookedOccurrences) {
+        generation++;
+        Iterator<CachedRoutes> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isUsingAny(bookedOccurrences)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized int getNumOfHits() {
+        return numOfHits;
+    }
+
+    public synchronized int getNumOfMisses() {
+        return numOfMisses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class CachedRoutes {
+        private PossibleRoutesList possibleRoutes;
+        private long creationTimeMillis;
+
+        private CachedRoutes(PossibleRoutesList possibleRoutes) {
+            this.possibleRoutes = new PossibleRoutesList();
+            this.possibleRoutes.addAll(possibleRoutes);
+            this.creationTimeMillis = System.currentTimeMillis();
+        }
+
+        private PossibleRoutesList copyRoutes() {
+            PossibleRoutesList copy = new PossibleRoutesList();
+            copy.addAll(possibleRoutes);
+            return copy;
+        }
+
+        private boolean isUsingAny(Collection<TripOfferPartOccurrence> occurrences) {
+            for (PossibleRoute possibleRoute : possibleRoutes) {
+                for (TripOfferPartOccurrence occurrence : possibleRoute.getRoute()) {
+                    if (occurrences.contains(occurrence)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package api.transpool.trip.matching.component;
+
+import java.util.BitSet;
+
+/**
+ * For every stop, the set of stops that can be reached from it by some chain of trip offer parts, regardless of time.
+ * A search doesn't need to go into a stop that can't reach its destination, and a request whose destination can't be
+ * reached from its source has no routes at all.
+ * The index is updated as connections are added. Stops only ever become reachable, never unreachable, so a search
+ * reading the index while a connection is being added can only see more reachable stops - never prune a real route.
+ */
+public class StopReachabilityIndex {
+
+    private int numOfStops;
+    private BitSet[] reachableStops;
+
+    public StopReachabilityIndex(int numOfStops) {
+        this.numOfStops = numOfStops;
+        this.reachableStops = new BitSet[numOfStops];
+        for (int i = 0; i < numOfStops; i++) {
+            //Sized to all the stops from the start so the bit sets are never reallocated.
+            reachableStops[i] = new BitSet(numOfStops);
+        }
+    }
+
+    /**
+     * Adds a connection from source to destination. Every stop that could reach the source (and the source itself)
+     * can now reach the destination, and everything the destination can reach.
+     * @param sourceID - The ID of the source stop of the connection.
+     * @param destinationID - The ID of the destination stop of the connection.
+     */
+    public void addConnection(int sourceID, int destinationID) {
+        if (reachableStops[sourceID].get(destinationID)) {
+            return;
+        }
+        BitSet newlyReachable = (BitSet) reachableStops[destinationID].clone();
+        newlyReachable.set(destinationID);
+
+        for (int stopID = 0; stopID < numOfStops; stopID++) {
+            if (stopID == sourceID || reachableStops[stopID].get(sourceID)) {
+                reachableStops[stopID].or(newlyReachable);
+            }
+        }
+    }
+
+    /**
+     * @return - true if destination can be reached from source. A stop can always reach itself.
+     */
+    public boolean isReachable(int sourceID, int destinationID) {
+        return sourceID == destinationID || reachableStops[sourceID].get(destinationID);
+    }
+}
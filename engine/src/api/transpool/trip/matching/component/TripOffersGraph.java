@@ -4,95 +4,270 @@ import api.transpool.map.component.Stop;
 import api.transpool.time.component.TimeDay;
 import api.transpool.trip.offer.component.TripOffer;
 import api.transpool.trip.offer.component.TripOfferPart;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Trip offer weighted graph
  * Vertex - Stop
  * Weight - SubTripOffer
+ * The reverse adjoint list holds the same parts by their destination stop, for searching backwards from a destination.
+ * The connection scan timetable holds the same parts again, as occurrences sorted by departure time.
+ * The reachability index knows which stops can be reached from each stop, and is updated on every connection.
+ * The route query cache holds the routes found for recent trip requests, and drops the ones a new connection affects.
+ * The compressed graphs are the adjoint lists in primitive arrays, for the searches. They are rebuilt the first time
+ * they are needed after an offer was added.
  */
 
 public class TripOffersGraph {
+    //Below this many offer parts, splitting the traversal between threads costs more than it saves.
+    private static final int PARALLEL_ENUMERATION_MIN_EDGES = 512;
+
     private List<List<TripOfferPart>> adjointList;
+    private List<List<TripOfferPart>> reverseAdjointList;
+    private ConnectionScanTimetable connectionScanTimetable;
+    private StopReachabilityIndex reachabilityIndex;
+    private RouteQueryCache routeQueryCache;
+    private CompressedTripOffersGraph compressedGraph;
+    private CompressedTripOffersGraph reversedCompressedGraph;
+    private boolean isCompressedGraphOutdated;
 
     public TripOffersGraph() {
         adjointList = new ArrayList<>();
+        reverseAdjointList = new ArrayList<>();
+        connectionScanTimetable = new ConnectionScanTimetable(0);
+        reachabilityIndex = new StopReachabilityIndex(0);
+        routeQueryCache = new RouteQueryCache();
+        isCompressedGraphOutdated = true;
     }
 
     public TripOffersGraph(int numOfStops, Collection<TripOffer> allTripOffers) {
         adjointList = new ArrayList<>();
+        reverseAdjointList = new ArrayList<>();
         for (int i = 0; i < numOfStops; i ++) {
             adjointList.add(new ArrayList<>());
+            reverseAdjointList.add(new ArrayList<>());
         }
+        connectionScanTimetable = new ConnectionScanTimetable(numOfStops);
+        reachabilityIndex = new StopReachabilityIndex(numOfStops);
+        routeQueryCache = new RouteQueryCache();
+        isCompressedGraphOutdated = true;
         allTripOffers.forEach(this::add);
     }
 
-    public void add(TripOffer tripOffer) {
+    public synchronized void add(TripOffer tripOffer) {
         tripOffer
                 .getRoute()
                 .forEach(this::newConnection);
+        connectionScanTimetable.add(tripOffer);
+        isCompressedGraphOutdated = true;
     }
 
     private void newConnection(TripOfferPart tripOfferPart) {
         int sourceID = tripOfferPart.getSourceStop().getID();
+        int destinationID = tripOfferPart.getDestinationStop().getID();
         adjointList.get(sourceID).add(tripOfferPart);
+        reverseAdjointList.get(destinationID).add(tripOfferPart);
+        reachabilityIndex.addConnection(sourceID, destinationID);
+        routeQueryCache.invalidate(reachabilityIndex, sourceID, destinationID);
+    }
+
+    public List<TripOfferPart> getOutgoingParts(int stopID) {
+        return adjointList.get(stopID);
+    }
+
+    public List<TripOfferPart> getIncomingParts(int stopID) {
+        return reverseAdjointList.get(stopID);
+    }
+
+    public int getNumOfStops() {
+        return adjointList.size();
+    }
+
+    public RouteQueryCache getRouteQueryCache() {
+        return routeQueryCache;
+    }
+
+    public StopReachabilityIndex getReachabilityIndex() {
+        return reachabilityIndex;
     }
 
     /**
-     * The main function for finding all possible routes from Stop source to Stop destination. Only takes into account
-     * the departure time. ***Arrival time is not yet done!***
+     * Checks if there is any chain of trip offer parts from source to destination, without a traversal.
+     * @return - false if no route from source to destination can exist, whatever the time.
+     */
+    public boolean isReachable(Stop source, Stop destination) {
+        return reachabilityIndex.isReachable(source.getID(), destination.getID());
+    }
+
+    public synchronized CompressedTripOffersGraph getCompressedGraph() {
+        updateCompressedGraphs();
+        return compressedGraph;
+    }
+
+    public synchronized CompressedTripOffersGraph getReversedCompressedGraph() {
+        updateCompressedGraphs();
+        return reversedCompressedGraph;
+    }
+
+    private void updateCompressedGraphs() {
+        if (isCompressedGraphOutdated) {
+            compressedGraph = new CompressedTripOffersGraph(adjointList, false);
+            reversedCompressedGraph = new CompressedTripOffersGraph(reverseAdjointList, true);
+            isCompressedGraphOutdated = false;
+        }
+    }
+
+    /**
+     * Finds the single route from Stop source to Stop destination which arrives the earliest, using a time dependent
+     * Dijkstra instead of listing all the routes.
      * @param source - The source to depart from
      * @param destination - The destination to arrive at
      * @param departureTime - The desired departure time.
-     * @return -  A list of possible routes from source to destination, departing AFTER departure time.
+     * @param isContinuous - true if the route has to be with a single driver.
+     * @param requiredSeats - The number of seats the rider needs, occurrences with fewer free seats are skipped.
+     * @return - The route departing AFTER departure time which arrives the earliest, null if there is none.
      */
-    public PossibleRoutesList getAllPossibleRoutes(Stop source, Stop destination, TimeDay departureTime) {
-        boolean[] beingVisited = new boolean[adjointList.size()];
+    public PossibleRoute getEarliestArrivalRoute(Stop source, Stop destination, TimeDay departureTime,
+                                                 boolean isContinuous, int requiredSeats) {
+        if (!isReachable(source, destination)) {
+            return null;
+        }
+        return new EarliestArrivalSearch(this).findRoute(source, destination, departureTime, isContinuous, requiredSeats);
+    }
 
-        PossibleRoute currentRoute = new PossibleRoute();
-        PossibleRoutesList possibleRoutes = new PossibleRoutesList();
+    /**
+     * Finds the single route from Stop source to Stop destination which arrives the earliest, by scanning the
+     * connection scan timetable once. Doesn't take continuity into account.
+     * @param source - The source to depart from
+     * @param destination - The destination to arrive at
+     * @param departureTime - The desired departure time.
+     * @param requiredSeats - The number of seats the rider needs, occurrences with fewer free seats are skipped.
+     * @return - The route departing AFTER departure time which arrives the earliest, null if there is none.
+     */
+    public PossibleRoute getConnectionScanRoute(Stop source, Stop destination, TimeDay departureTime, int requiredSeats) {
+        if (!isReachable(source, destination)) {
+            return null;
+        }
+        return connectionScanTimetable.findEarliestArrivalRoute(source, destination, departureTime, requiredSeats);
+    }
 
-        depthFirstTraversal(source, destination, departureTime, beingVisited, currentRoute, possibleRoutes);
+    /**
+     * Finds the single route from Stop source to Stop destination which departs the latest while still arriving at
+     * the destination by the arrival time. Searches backwards from the destination over the reverse adjoint list.
+     * @param source - The source to depart from
+     * @param destination - The destination to arrive at
+     * @param arrivalTime - The time to arrive by.
+     * @param isContinuous - true if the route has to be with a single driver.
+     * @param requiredSeats - The number of seats the rider needs, occurrences with fewer free seats are skipped.
+     * @return - The route arriving BEFORE arrival time which departs the latest, null if there is none.
+     */
+    public PossibleRoute getLatestDepartureRoute(Stop source, Stop destination, TimeDay arrivalTime,
+                                                 boolean isContinuous, int requiredSeats) {
+        if (!isReachable(source, destination)) {
+            return null;
+        }
+        return new LatestDepartureSearch(this).findRoute(source, destination, arrivalTime, isContinuous, requiredSeats);
+    }
 
-        return possibleRoutes;
+    /**
+     * Finds the routes from Stop source to Stop destination that are the best trade-offs between arrival time, price
+     * and number of driver changes - no other route is at least as good in all three.
+     * @param source - The source to depart from
+     * @param destination - The destination to arrive at
+     * @param departureTime - The desired departure time.
+     * @param isContinuous - true if the route has to be with a single driver.
+     * @param requiredSeats - The number of seats the rider needs, occurrences with fewer free seats are skipped.
+     * @return - The Pareto optimal routes departing AFTER departure time, earliest arrival first.
+     */
+    public PossibleRoutesList getParetoOptimalRoutes(Stop source, Stop destination, TimeDay departureTime,
+                                                     boolean isContinuous, int requiredSeats) {
+        if (!isReachable(source, destination)) {
+            return new PossibleRoutesList();
+        }
+        return new ParetoRouteSearch(this).findRoutes(source, destination, departureTime, isContinuous, requiredSeats);
     }
 
+    /**
+     * The main function for finding all possible routes from Stop source to Stop destination. Only takes into account
+     * the departure time. ***Arrival time is not yet done!***
+     * @param source - The source to depart from
+     * @param destination - The destination to arrive at
+     * @param departureTime - The desired departure time.
+     * @return -  A list of possible routes from source to destination, departing AFTER departure time.
+     */
+    public PossibleRoutesList getAllPossibleRoutes(Stop source, Stop destination, TimeDay departureTime) {
+        return getAllPossibleRoutes(source, destination, departureTime, possibleRoute -> true, Integer.MAX_VALUE,
+                TripOfferPartOccurrence.SEATS_PER_RIDER);
+    }
 
     /**
-     * The auxiliary function for finding the possible routes.
-     * Uses DFS recursive algorithm. Traverses SubTripOffers, relevant STOs are converted to timedSTOs.
-     * "if (currentRoute.add(nextOffer, departureTime))" (line 89) is where the magic happens.
-     * @param currentStop - The... current stop.
-     * @param destination - The desired destination
-     * @param departureTime - The current departure time.
-     * @param beingVisited - An array of booleans to check if the stops are already visited.
-     * @param currentRoute - The current route built - a stack.
-     * @param possibleRoutes - The value which will be returned at the end.
+     * Finds up to maximumRoutes possible routes from Stop source to Stop destination. On a big enough graph the
+     * traversal is split between the threads of the common fork/join pool, otherwise it runs on the calling thread.
+     * Without a maximum both find the same routes. When the split traversal is stopped by maximumRoutes, the routes
+     * found are not necessarily the first ones in the sequential order, as the branches are traversed at the same time
+     * and each stops once enough routes were found in all of them.
+     * @param source - The source to depart from
+     * @param destination - The destination to arrive at
+     * @param departureTime - The desired departure time.
+     * @param routePredicate - Checked on every partial route, partial routes failing it are not extended.
+     * @param maximumRoutes - The maximum number of routes to find.
+     * @param requiredSeats - The number of seats the rider needs, occurrences with fewer free seats are skipped.
+     * @return - A list of up to maximumRoutes possible routes from source to destination, departing AFTER departure
+     * time. The routes are listed in the order the depth first traversal visits them, even if not all of them are the
+     * first ones it visits.
      */
-    private void depthFirstTraversal(Stop currentStop, Stop destination, TimeDay departureTime,
-                                     boolean[] beingVisited, PossibleRoute currentRoute,
-                                     PossibleRoutesList possibleRoutes) {
-        beingVisited[currentStop.getID()] = true;
-
-        if (currentStop.equals(destination)) {
-            possibleRoutes.add(new PossibleRoute(currentRoute));
-            beingVisited[currentStop.getID()] = false;
-            return;
+    public PossibleRoutesList getAllPossibleRoutes(Stop source, Stop destination, TimeDay departureTime,
+                                                   Predicate<PossibleRoute> routePredicate, int maximumRoutes,
+                                                   int requiredSeats) {
+        if (source.equals(destination) || !isReachable(source, destination)) {
+            return new PossibleRoutesList();
+        } else if (getCompressedGraph().getNumOfEdges() < PARALLEL_ENUMERATION_MIN_EDGES) {
+            return getPossibleRoutes(source, destination, departureTime, routePredicate, requiredSeats)
+                    .limit(maximumRoutes)
+                    .collect(Collectors.toCollection(PossibleRoutesList::new));
+        } else {
+            RouteEnumerationTask enumerationTask = new RouteEnumerationTask(
+                    this, source.getID(), destination.getID(), departureTime.toMinutes(), routePredicate, maximumRoutes,
+                    requiredSeats);
+            return ForkJoinPool.commonPool()
+                    .invoke(enumerationTask)
+                    .stream()
+                    .limit(maximumRoutes)
+                    .collect(Collectors.toCollection(PossibleRoutesList::new));
         }
+    }
 
-        for (TripOfferPart nextOffer : adjointList.get(currentStop.getID())) {
-            if (nextOffer != null && !beingVisited[nextOffer.getDestinationStop().getID()]) {
-                if (currentRoute.add(nextOffer, departureTime)) {
-                    depthFirstTraversal(nextOffer.getDestinationStop(), destination, currentRoute.getArrivalTime(), beingVisited,
-                            currentRoute, possibleRoutes);
-                    currentRoute.remove(nextOffer);
-                }
-            }
+    /**
+     * A lazy stream of the possible routes from Stop source to Stop destination. The routes are found by the depth
+     * first traversal only as the stream is consumed, so limiting the stream stops the traversal.
+     * @param source - The source to depart from
+     * @param destination - The destination to arrive at
+     * @param departureTime - The desired departure time.
+     * @param routePredicate - Checked on every partial route, partial routes failing it are not extended.
+     * @param requiredSeats - The number of seats the rider needs, occurrences with fewer free seats are skipped.
+     * @return - A stream of the possible routes from source to destination, departing AFTER departure time.
+     */
+    public Stream<PossibleRoute> getPossibleRoutes(Stop source, Stop destination, TimeDay departureTime,
+                                                   Predicate<PossibleRoute> routePredicate, int requiredSeats) {
+        if (!isReachable(source, destination)) {
+            return Stream.empty();
         }
-
-        beingVisited[currentStop.getID()] = false;
+        Iterator<PossibleRoute> routesIterator =
+                new PossibleRoutesIterator(this, source, destination, departureTime, routePredicate, requiredSeats);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(routesIterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
     }
 }
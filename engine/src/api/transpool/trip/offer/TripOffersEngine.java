@@ -21,12 +21,30 @@ public interface TripOffersEngine extends Updatable {
 
     Map<Integer, TripOffer> getAllTripOffers();
 
+    /**
+     * @return - A new trip offer ID, unique across all maps.
+     */
+    int createTripOfferID();
+
     int getNumOfTripOffers();
 
     TripOfferPart getTripOfferPart(int tripOfferID, int subTripOfferID);
 
     TripOffersGraph getTripOffersGraph();
 
+    int getNumOfStoredOccurrences();
+
+    /**
+     * @param minute - The departure or arrival is after this minute.
+     * @param untilMinute - The latest minute to look until.
+     * @return - The next minute any trip offer departs or arrives on, TripOfferTimeline.NO_EVENT if there is none.
+     */
+    int getNextTimelineEventMinute(int minute, int untilMinute);
+
+    int getNumOfTimelineEventsAt(int minute);
+
+    long getStoredOccurrencesSizeInBytes();
+
     //Live details
 
     List<TripOffer> getCurrentOffers();
@@ -1,11 +1,14 @@
 package api.transpool.trip.offer;
 
+import api.transpool.id.IDAllocator;
 import api.transpool.map.BasicMap;
 import api.transpool.map.component.Stop;
+import api.transpool.time.TimeEngine;
 import api.transpool.time.component.TimeDay;
 import api.transpool.trip.offer.component.TripOffer;
 import api.transpool.trip.offer.component.TripOfferDTO;
 import api.transpool.trip.offer.component.TripOfferPart;
+import api.transpool.trip.offer.component.TripOfferTimeline;
 import api.transpool.trip.matching.component.TripOffersGraph;
 import api.transpool.trip.matching.component.PossibleRoutesList;
 import javafx.collections.FXCollections;
@@ -23,16 +26,25 @@ import java.util.stream.Collectors;
 public class TripOffersEngineBase implements TripOffersEngine {
     private Map<Integer, TripOffer> allTripOffers;
     private TripOffersGraph tripOffersGraph;
+    private TripOfferTimeline timeline;
+    private TimeEngine timeEngine;
+    private IDAllocator tripOfferIDs;
 
     //Live details
     private List<TripOffer> currentTripOffers;
     private List<TripOfferPart> currentTripOfferParts;
 
 
-    public TripOffersEngineBase(BasicMap map) {
+    /**
+     * @param timeEngine - The clock of the map.
+     */
+    public TripOffersEngineBase(BasicMap map, TimeEngine timeEngine) {
         this.allTripOffers = new HashMap<>();
         this.currentTripOfferParts = new ArrayList<>();
         this.currentTripOffers = FXCollections.observableArrayList();
+        this.timeEngine = timeEngine;
+        this.tripOfferIDs = TripOffer.ID_SPACE.createAllocator();
+        this.timeline = new TripOfferTimeline(timeEngine.getCurrentMinute());
         update();
 
         this.tripOffersGraph = new TripOffersGraph(map.getNumberOfStops(), allTripOffers.values());
@@ -56,6 +68,11 @@ public class TripOffersEngineBase implements TripOffersEngine {
     public void addTripOffer(TripOffer tripOffer) {
         allTripOffers.put(tripOffer.getID(), tripOffer);
         tripOffersGraph.add(tripOffer);
+        timeline.add(tripOffer);
+        if (tripOffer.isHappeningAt(timeline.getCurrentMinute())) {
+            currentTripOffers.add(tripOffer);
+            currentTripOfferParts.add(tripOffer.getOccurringTripOfferPart(timeline.getCurrentMinute()));
+        }
     }
 
     @Override
@@ -63,6 +80,11 @@ public class TripOffersEngineBase implements TripOffersEngine {
         return allTripOffers;
     }
 
+    @Override
+    public int createTripOfferID() {
+        return tripOfferIDs.nextID();
+    }
+
     @Override
     public int getNumOfTripOffers() {
         return allTripOffers.size();
@@ -93,28 +115,70 @@ public class TripOffersEngineBase implements TripOffersEngine {
 
     /**
      * This function updates the map every time the system's time is changed.
-     * 1. Gets all the current tripoffers happening.
-     * 2. Populates the list of current subTripOffers happening
-     * 3. Updates the stops with the relevant details through the subTripOffers using subTripOffer.currentDetails() functions.
+     * 1. Updates the current tripoffers happening, through the timeline - only the offers which departed or arrived
+     *    since the last update are checked.
+     * 2. Drops the stored occurrences of the offers which arrived, if they have no riders.
+     * 3. Populates the list of current subTripOffers happening
+     * 4. Updates the stops with the relevant details through the subTripOffers using subTripOffer.currentDetails() functions.
      *    The details are shown on the live map when a stop is clicked.
      */
     @Override
     public void update() {
-        currentTripOffers.clear();
+        int currentMinute = timeEngine.getCurrentMinute();
+        for (TripOffer tripOffer : timeline.moveTo(currentMinute)) {
+            if (tripOffer.isHappeningAt(currentMinute)) {
+                if (!currentTripOffers.contains(tripOffer)) {
+                    currentTripOffers.add(tripOffer);
+                }
+            } else {
+                currentTripOffers.remove(tripOffer);
+                tripOffer.getRoute().forEach(tripOfferPart -> tripOfferPart.evictEmptyOccurrencesBefore(currentMinute));
+            }
+        }
+
         currentTripOfferParts.clear();
+        for (TripOffer tripOffer : currentTripOffers) {
+            currentTripOfferParts.add(tripOffer.getOccurringTripOfferPart(currentMinute));
+        }
+        for (TripOfferPart tripOfferPart : currentTripOfferParts) {
+            if (tripOfferPart != null && tripOfferPart.isDepartingAt(currentMinute)) {
+                //subTripOffer.getSourceStop().addDetails(subTripOffer.currentDetails(currentMinute));
+            } else if (tripOfferPart != null && tripOfferPart.isArrivingAt(currentMinute)) {
+                //subTripOffer.getDestinationStop().addDetails(subTripOffer.currentDetails(currentMinute));
+            }
+        }
+    }
+
+    @Override
+    public int getNextTimelineEventMinute(int minute, int untilMinute) {
+        return timeline.getNextEventMinute(minute, untilMinute);
+    }
+
+    @Override
+    public int getNumOfTimelineEventsAt(int minute) {
+        return timeline.getNumOfEventsAt(minute);
+    }
+
+    @Override
+    public int getNumOfStoredOccurrences() {
+        int numOfStoredOccurrences = 0;
         for (TripOffer tripOffer : allTripOffers.values()) {
-            if (tripOffer.isCurrentlyHappening()) {
-                currentTripOffers.add(tripOffer);
-                currentTripOfferParts.add(tripOffer.getOccurringTripOfferPart());
+            for (TripOfferPart tripOfferPart : tripOffer.getRoute()) {
+                numOfStoredOccurrences += tripOfferPart.getNumOfStoredOccurrences();
             }
         }
-        for (TripOfferPart tripOfferPart : currentTripOfferParts) {
-            if (tripOfferPart != null && tripOfferPart.isCurrentlyDeparting()) {
-                //subTripOffer.getSourceStop().addDetails(subTripOffer.currentDetails());
-            } else if (tripOfferPart != null && tripOfferPart.isCurrentlyArriving()) {
-                //subTripOffer.getDestinationStop().addDetails(subTripOffer.currentDetails());
+        return numOfStoredOccurrences;
+    }
+
+    @Override
+    public long getStoredOccurrencesSizeInBytes() {
+        long sizeInBytes = 0;
+        for (TripOffer tripOffer : allTripOffers.values()) {
+            for (TripOfferPart tripOfferPart : tripOffer.getRoute()) {
+                sizeInBytes += tripOfferPart.getStoredOccurrencesSizeInBytes();
             }
         }
+        return sizeInBytes;
     }
 
     public PossibleRoutesList getAllPossibleRoutes(Stop source, Stop destination, TimeDay departureTime) {
@@ -0,0 +1,174 @@
+package api.transpool.trip.offer.component;
+
+import api.transpool.user.account.Rider;
+import exception.parser.RideFullException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Seats reserved on every occurrence of a route at once - either every leg of the route gets its seats, or none does.
+ * The seats of each occurrence are taken with a compare-and-set on its seat counter, so riders booking at the same
+ * time never get the same seat.
+ * The legs are always reserved in the same order - by trip offer, part and day - rather than in the order of the route,
+ * so two riders racing for the same legs compete on the same leg first. If a leg is full, the seats already taken on
+ * the legs before it are given back, and nothing stays booked.
+ * A reservation holds its seats until it is confirmed for a rider or cancelled.
+ */
+public class SeatReservation {
+
+    private static final Comparator<TripOfferPartOccurrence> RESERVATION_ORDER = Comparator
+            .comparingInt((TripOfferPartOccurrence occurrence) -> occurrence.getTripOfferPart().getMainOffer().getID())
+            .thenComparingInt(TripOfferPartOccurrence::getID)
+            .thenComparingInt(TripOfferPartOccurrence::getOccurrenceDay);
+
+    //The stored occurrences the seats were taken on, in the order of the route.
+    private List<TripOfferPartOccurrence> reservedOccurrences;
+    private int seatsPerOccurrence;
+    private boolean isSettled;
+
+    private SeatReservation(List<TripOfferPartOccurrence> reservedOccurrences, int seatsPerOccurrence) {
+        this.reservedOccurrences = reservedOccurrences;
+        this.seatsPerOccurrence = seatsPerOccurrence;
+        this.isSettled = false;
+    }
+
+    /**
+     * Takes seats on every occurrence of the route.
+     * @param route - The occurrences to reserve, as found by a matching search. They don't need to be stored yet.
+     * @param seatsPerOccurrence - The number of seats to take on each occurrence.
+     * @return - The reservation holding the seats.
+     * @throws RideFullException - If any of the occurrences doesn't have enough seats left. No seats are taken then.
+     */
+    public static SeatReservation reserve(List<TripOfferPartOccurrence> route, int seatsPerOccurrence)
+            throws RideFullException {
+        Integer[] reservationOrder = new Integer[route.size()];
+        Arrays.setAll(reservationOrder, index -> index);
+        Arrays.sort(reservationOrder, Comparator.comparing(route::get, RESERVATION_ORDER));
+
+        TripOfferPartOccurrence[] reservedOccurrences = new TripOfferPartOccurrence[route.size()];
+        for (int i = 0; i < reservationOrder.length; i++) {
+            int leg = reservationOrder[i];
+            reservedOccurrences[leg] = reserveLeg(route.get(leg), seatsPerOccurrence);
+
+            if (reservedOccurrences[leg] == null) {
+                for (int reserved = i - 1; reserved >= 0; reserved--) {
+                    reservedOccurrences[reservationOrder[reserved]].releaseSeats(seatsPerOccurrence);
+                }
+                throw new RideFullException();
+            }
+        }
+
+        return new SeatReservation(new ArrayList<>(Arrays.asList(reservedOccurrences)), seatsPerOccurrence);
+    }
+
+    /**
+     * Takes seats on every distinct occurrence that still has them, skipping the full ones. An occurrence which appears
+     * more than once, such as a leg shared by several routes, gets its seats taken once.
+     * @param occurrences - The occurrences to reserve, as found by a matching search. They don't need to be stored yet.
+     * @param seatsPerOccurrence - The number of seats to take on each occurrence.
+     * @return - The reservation holding the seats, null if none of the occurrences had enough seats left.
+     */
+    public static SeatReservation reserveAvailable(List<TripOfferPartOccurrence> occurrences, int seatsPerOccurrence) {
+        List<TripOfferPartOccurrence> sortedOccurrences = new ArrayList<>(occurrences);
+        sortedOccurrences.sort(RESERVATION_ORDER);
+
+        List<TripOfferPartOccurrence> reservedOccurrences = new ArrayList<>();
+        TripOfferPartOccurrence previous = null;
+        for (TripOfferPartOccurrence occurrence : sortedOccurrences) {
+            if (previous == null || RESERVATION_ORDER.compare(previous, occurrence) != 0) {
+                TripOfferPartOccurrence storedOccurrence = reserveLeg(occurrence, seatsPerOccurrence);
+                if (storedOccurrence != null) {
+                    reservedOccurrences.add(storedOccurrence);
+                }
+            }
+            previous = occurrence;
+        }
+
+        return reservedOccurrences.isEmpty() ? null : new SeatReservation(reservedOccurrences, seatsPerOccurrence);
+    }
+
+    /**
+     * @return - The stored occurrence the seats were taken on, null if it doesn't have enough seats left.
+     */
+    private static TripOfferPartOccurrence reserveLeg(TripOfferPartOccurrence leg, int seats) {
+        while (true) {
+            TripOfferPartOccurrence storedOccurrence = leg
+                    .getTripOfferPart()
+                    .getOrStoreOccurrence(leg.getOccurrenceDay());
+
+            if (storedOccurrence.tryReserveSeats(seats)) {
+                return storedOccurrence;
+            } else if (!storedOccurrence.isEvicted()) {
+                return null;
+            }
+            //The occurrence was evicted after it was fetched, the next fetch stores a new one.
+        }
+    }
+
+    /**
+     * Adds the rider to every reserved occurrence, on the seats taken for them.
+     * @param rider - The rider the seats were reserved for.
+     * @return - The booked occurrences, in the order of the route.
+     */
+    public synchronized List<TripOfferPartOccurrence> confirm(Rider rider) {
+        settle();
+        reservedOccurrences.forEach(occurrence -> occurrence.addReservedRider(rider));
+        return reservedOccurrences;
+    }
+
+    /**
+     * Splits off the seats of a route - they are moved to a new reservation, and the other seats are given back.
+     * @param route - The occurrences of the route, as found by a matching search.
+     * @return - The reservation of the route's seats, in the order of the route. null if some leg of the route isn't
+     * reserved here, and then all the seats are given back.
+     */
+    public synchronized SeatReservation keepOnly(List<TripOfferPartOccurrence> route) {
+        settle();
+        List<TripOfferPartOccurrence> keptOccurrences = new ArrayList<>();
+        for (TripOfferPartOccurrence leg : route) {
+            reservedOccurrences
+                    .stream()
+                    .filter(reservedOccurrence -> RESERVATION_ORDER.compare(reservedOccurrence, leg) == 0)
+                    .findFirst()
+                    .ifPresent(keptOccurrences::add);
+        }
+
+        boolean isRouteReserved = keptOccurrences.size() == route.size();
+        for (TripOfferPartOccurrence reservedOccurrence : reservedOccurrences) {
+            if (!isRouteReserved || !keptOccurrences.contains(reservedOccurrence)) {
+                reservedOccurrence.releaseSeats(seatsPerOccurrence);
+            }
+        }
+        return isRouteReserved ? new SeatReservation(keptOccurrences, seatsPerOccurrence) : null;
+    }
+
+    /**
+     * Gives back the reserved seats.
+     */
+    public synchronized void cancel() {
+        settle();
+        reservedOccurrences.forEach(occurrence -> occurrence.releaseSeats(seatsPerOccurrence));
+    }
+
+    public List<TripOfferPartOccurrence> getReservedOccurrences() {
+        return reservedOccurrences;
+    }
+
+    public int getSeatsPerOccurrence() {
+        return seatsPerOccurrence;
+    }
+
+    public synchronized boolean isSettled() {
+        return isSettled;
+    }
+
+    private void settle() {
+        if (isSettled) {
+            throw new IllegalStateException("The reservation was already confirmed or cancelled.");
+        }
+        isSettled = true;
+    }
+}
@@ -19,8 +19,8 @@ public interface SingleTripOfferEngine {
     TimeDay getTimeAtStop(Stop stop);
 
     TripOfferPart getTripOfferPart(int subTripOfferID);
-    TripOfferPart getOccurringTripOfferPart();
-    boolean isCurrentlyHappening();
+    TripOfferPart getOccurringTripOfferPart(int minute);
+    boolean isHappeningAt(int minute);
     void updateAfterMatch(TransPoolRider transPoolRider, TripOfferPartOccurrence subTripOffer);
     TripOfferDTO getDetails();
 
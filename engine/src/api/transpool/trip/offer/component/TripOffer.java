@@ -1,6 +1,7 @@
 package api.transpool.trip.offer.component;
 
 import api.transpool.SingleMapEngine;
+import api.transpool.id.IDSpace;
 import api.transpool.map.BasicMap;
 import api.transpool.map.component.Path;
 import api.transpool.map.component.Stop;
@@ -21,7 +22,8 @@ import java.util.*;
  */
 public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
 
-    private static int IDGenerator = 10000000;
+    //Every offer takes 1000 IDs - its own, and the IDs of its parts (see initializeTripOfferParts()).
+    public static final IDSpace ID_SPACE = new IDSpace(10000000, 1000);
 
     protected int ID;
     private TransPoolDriver transpoolDriver;
@@ -39,9 +41,11 @@ public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
     private List<Path> usedPaths;
     private List<MatchedTripRequestPart> matchedRequestsDetails;
 
-    public TripOffer(BasicMap map, TransPoolDriver driver, LocalTime departureTime, int dayStart, Recurrence recurrences, int passengerCapacity, int PPK, List<String> route) throws TransPoolDataException {
-        this.ID = IDGenerator;
-        IDGenerator += 1000;
+    /**
+     * @param map - The map of the offer, which hands out its ID.
+     */
+    public TripOffer(SingleMapEngine map, TransPoolDriver driver, LocalTime departureTime, int dayStart, Recurrence recurrences, int passengerCapacity, int PPK, List<String> route) throws TransPoolDataException {
+        this.ID = map.createTripOfferID();
 
         this.transpoolDriver = driver;
         this.maxPassengerCapacity = passengerCapacity;
@@ -68,6 +72,42 @@ public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
         initializeTripOfferParts();
     }
 
+    /**
+     * Copies an offer onto a map with the same stops and paths, such as a simulation copy of its map. The copy keeps
+     * the offer's ID and the seats taken on it so far.
+     * @param original - The offer to copy.
+     * @param driver - The driver of the copy, so the riders booked on the copy aren't added to the original driver.
+     */
+    public TripOffer(TripOffer original, TransPoolDriver driver) {
+        this.ID = original.ID;
+
+        this.transpoolDriver = driver;
+        this.maxPassengerCapacity = original.maxPassengerCapacity;
+        this.PPK = original.PPK;
+
+        this.departureTime = new TimeDay(original.departureTime);
+        this.recurrences = original.recurrences;
+
+        this.matchedRequestsDetails = new ArrayList<>();
+        this.route = new ArrayList<>();
+        this.timeTable = new HashMap<>();
+        this.usedPaths = new ArrayList<>();
+
+        original.usedPaths.forEach(path -> usedPaths.add(new Path(path)));
+
+        //Order matters.
+        this.tripPrice = calculatePriceOfRoute(this.PPK);
+        this.tripDurationInMinutes = calculateTripDuration();
+        this.averageFuelConsumption = calculateAverageFuelConsumption();
+
+        //Order matters.
+        initializeTimeTable();
+        initializeTripOfferParts();
+        for (int i = 0; i < route.size(); i++) {
+            route.get(i).copyTakenSeatsFrom(original.route.get(i));
+        }
+    }
+
     /**
      * The timetable holds the time at each stop in the route. Initialized here through the used paths.
      */
@@ -183,14 +223,24 @@ public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
                 .orElse(null);
     }
 
+    /**
+     * The parts of the offer follow each other, so an occurrence of the offer is happening from the departure of its
+     * first part until the arrival of its last part.
+     * @param minute - The time to check, in minutes (see TimeDay.toMinutes()).
+     * @return - true if an occurrence of the offer has departed and not yet arrived at that minute.
+     */
     @Override
-    public boolean isCurrentlyHappening() {
-        for (TripOfferPart tripOfferPart : route) {
-            if (tripOfferPart.isCurrentlyHappening()) {
-                return true;
-            }
-        }
-        return false;
+    public boolean isHappeningAt(int minute) {
+        int minutesSinceDeparture = recurrences.getMinutesSinceOccurrence(minute, getDepartureMinute());
+        return minutesSinceDeparture != -1 && minutesSinceDeparture <= getArrivalMinute() - getDepartureMinute();
+    }
+
+    public int getDepartureMinute() {
+        return route.get(0).getDepartureMinute();
+    }
+
+    public int getArrivalMinute() {
+        return route.get(route.size() - 1).getArrivalMinute();
     }
 
     @Override
@@ -203,14 +253,18 @@ public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
         return route.get(route.size() - 1).getArrivalTime();
     }
 
+    /**
+     * @param minute - The time to check, in minutes (see TimeDay.toMinutes()).
+     * @return - The part departing at that minute, or the last part if it is arriving then, null otherwise.
+     */
     @Override
-    public TripOfferPart getOccurringTripOfferPart() {
+    public TripOfferPart getOccurringTripOfferPart(int minute) {
         for (TripOfferPart tripOfferPart : route) {
-            if (tripOfferPart.isCurrentlyDeparting()) {
+            if (tripOfferPart.isDepartingAt(minute)) {
                 return tripOfferPart;
             }
         }
-        if (route.get(route.size() - 1).isCurrentlyArriving()) {
+        if (route.get(route.size() - 1).isArrivingAt(minute)) {
             return route.get(route.size() - 1);
         }
         return null;
@@ -243,7 +297,7 @@ public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
      * @param offerPartOccurrence
      */
     @Override
-    public void updateAfterMatch(TransPoolRider rider, TripOfferPartOccurrence offerPartOccurrence) {
+    public synchronized void updateAfterMatch(TransPoolRider rider, TripOfferPartOccurrence offerPartOccurrence) {
         MatchedTripRequestPart matchedPart = new MatchedTripRequestPart(rider, offerPartOccurrence);
         matchedRequestsDetails.add(matchedPart);
         transpoolDriver.addRider(matchedPart);
@@ -271,7 +325,7 @@ public class TripOffer implements SingleTripOfferEngine, BasicTripOffer {
 
     @Override
     public boolean isBelongToMap(SingleMapEngine map) {
-        return map.getTripRequest(ID) != null;
+        return map.getTripOffer(ID) == this;
     }
 
     @Override
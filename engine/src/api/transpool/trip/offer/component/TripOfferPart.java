@@ -3,21 +3,26 @@ package api.transpool.trip.offer.component;
 import api.transpool.SingleMapEngine;
 import api.transpool.map.component.Path;
 import api.transpool.map.component.Stop;
-import api.transpool.time.TimeEngineBase;
 import api.transpool.time.component.Schedule;
 import api.transpool.time.component.TimeDay;
 import api.transpool.time.component.Recurrence;
 import api.transpool.user.account.TransPoolDriver;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Contains the static data of a part of a trip offer (made from a single path)
- * DayToOccurrenceMap contains the TripOfferPart's occurrences in each day.
+ * DayToOccurrenceMap contains the TripOfferPart's booked occurrences in each day. An occurrence found by a matching
+ * search is only stored once a rider books it, so the map grows with the bookings rather than with the searches.
+ * Occurrences may be booked by several threads at once, so each day gets exactly one stored occurrence through the
+ * concurrent map. An empty occurrence is marked as evicted before it is dropped, and booking a day whose occurrence
+ * was evicted stores a new one in its place.
  */
 public class TripOfferPart implements Schedule, BasicTripOffer {
+    public static final int NO_OCCURRENCE_DAY = -1;
+
     private TripOffer mainOffer;
 
     private int ID;
@@ -33,12 +38,14 @@ public class TripOfferPart implements Schedule, BasicTripOffer {
 
     private TimeDay departureTime;
     private TimeDay arrivalTime;
+    private int departureMinute;
+    private int arrivalMinute;
     private Recurrence occurrenceType;
 
     private Map<Integer, TripOfferPartOccurrence> dayToOccurrenceMap;
 
     public TripOfferPart(int ID, Path path, TripOffer tripOffer) {
-        this.dayToOccurrenceMap = new HashMap<>();
+        this.dayToOccurrenceMap = new ConcurrentHashMap<>();
         this.mainOffer = tripOffer;
         this.ID = ID;
         this.transpoolDriver = tripOffer.getTransPoolDriver();
@@ -54,6 +61,8 @@ public class TripOfferPart implements Schedule, BasicTripOffer {
 
         this.departureTime = tripOffer.getTimeAtStop(sourceStop);
         this.arrivalTime = tripOffer.getTimeAtStop(destinationStop);
+        this.departureMinute = departureTime.toMinutes();
+        this.arrivalMinute = arrivalTime.toMinutes();
         this.occurrenceType = tripOffer.getRecurrences();
     }
 
@@ -112,6 +121,20 @@ public class TripOfferPart implements Schedule, BasicTripOffer {
         return arrivalTime;
     }
 
+    /**
+     * @return - The time the first occurrence departs from the source stop, in minutes (see TimeDay.toMinutes()).
+     */
+    public int getDepartureMinute() {
+        return departureMinute;
+    }
+
+    /**
+     * @return - The time the first occurrence arrives at the destination stop, in minutes (see TimeDay.toMinutes()).
+     */
+    public int getArrivalMinute() {
+        return arrivalMinute;
+    }
+
     @Override
     public Recurrence getRecurrences() {
         return occurrenceType;
@@ -124,31 +147,194 @@ public class TripOfferPart implements Schedule, BasicTripOffer {
 
     @Override
     public TripOfferPartOccurrence getOccurrenceAfter(TimeDay timeDay) {
-        if (!departureTime.isBefore(timeDay)) {
-            return getFirstOccurrence();
+        return getOccurrenceAfter(timeDay.toMinutes(), 0);
+    }
 
+    /**
+     * Finds the first occurrence departing at or after the minute which still has the required seats free. Full
+     * occurrences are skipped, moving on to the next recurrence. Only the occurrence found is created.
+     * @param minute - The earliest time the occurrence may depart, in minutes (see TimeDay.toMinutes()).
+     * @param requiredSeats - The number of seats the rider needs.
+     * @return - The first such occurrence, null if there is none.
+     */
+    public TripOfferPartOccurrence getOccurrenceAfter(int minute, int requiredSeats) {
+        int occurrenceDay = getDayOfOccurrenceAfter(minute, requiredSeats);
+        if (occurrenceDay == NO_OCCURRENCE_DAY) {
+            return null;
+        } else {
+            return getOrCreateOccurrence(occurrenceDay);
+        }
+    }
+
+    /**
+     * The probe behind getOccurrenceAfter - finds the day of the occurrence without creating it, or any of the
+     * occurrences before it. The first recurrence departing at or after the minute is computed from the day start,
+     * and only full occurrences are stepped over.
+     * @param minute - The earliest time the occurrence may depart, in minutes (see TimeDay.toMinutes()).
+     * @param requiredSeats - The number of seats the rider needs.
+     * @return - The day of the first such occurrence, NO_OCCURRENCE_DAY if there is none.
+     */
+    public int getDayOfOccurrenceAfter(int minute, int requiredSeats) {
+        if (maxPassengerCapacity < requiredSeats) {
+            return NO_OCCURRENCE_DAY;
+        }
+
+        int occurrenceDay;
+        if (departureMinute >= minute) {
+            occurrenceDay = getDayStart();
         } else if (!occurrenceType.equals(Recurrence.ONE_TIME)) {
-            TripOfferPartOccurrence currentOccurrence = getFirstOccurrence();
-            int currentDay = currentOccurrence.getOccurrenceDay();
+            int recurrenceInMinutes = occurrenceType.getValue() * TimeDay.MINUTES_IN_DAY;
+            int recurrencesBefore = (minute - departureMinute + recurrenceInMinutes - 1) / recurrenceInMinutes;
+            occurrenceDay = getDayStart() + recurrencesBefore * occurrenceType.getValue();
+        } else {
+            return NO_OCCURRENCE_DAY;
+        }
 
-            while (currentOccurrence.isBefore(timeDay)) {
-                currentDay += occurrenceType.getValue();
-                currentOccurrence = getOrCreateOccurrence(currentDay);
+        while (getSpacesLeft(occurrenceDay) < requiredSeats) {
+            if (occurrenceType.equals(Recurrence.ONE_TIME)) {
+                return NO_OCCURRENCE_DAY;
             }
+            occurrenceDay += occurrenceType.getValue();
+        }
+        return occurrenceDay;
+    }
 
-            return currentOccurrence;
+    /**
+     * @param occurrenceDay - The day of an occurrence of the part.
+     * @return - The time the occurrence of that day departs from the source stop, in minutes.
+     */
+    public int getDepartureMinute(int occurrenceDay) {
+        return departureMinute + (occurrenceDay - getDayStart()) * TimeDay.MINUTES_IN_DAY;
+    }
 
-        } else {
+    /**
+     * @param occurrenceDay - The day of an occurrence of the part.
+     * @return - The time the occurrence of that day arrives at the destination stop, in minutes.
+     */
+    public int getArrivalMinute(int occurrenceDay) {
+        return arrivalMinute + (occurrenceDay - getDayStart()) * TimeDay.MINUTES_IN_DAY;
+    }
+
+    @Override
+    public TripOfferPartOccurrence getOccurrenceBefore(TimeDay timeDay) {
+        return getOccurrenceBefore(timeDay.toMinutes());
+    }
+
+    /**
+     * Finds the last occurrence which arrives at the destination stop no later than the minute.
+     * @param minute - The latest time the occurrence may arrive, in minutes (see TimeDay.toMinutes()).
+     * @return - The latest occurrence arriving at or before the minute, null if even the first occurrence arrives
+     * after it.
+     */
+    public TripOfferPartOccurrence getOccurrenceBefore(int minute) {
+        if (arrivalMinute > minute) {
             return null;
+
+        } else if (!occurrenceType.equals(Recurrence.ONE_TIME)) {
+            int recurrencesBefore = (minute - arrivalMinute) / (occurrenceType.getValue() * TimeDay.MINUTES_IN_DAY);
+            return getOrCreateOccurrence(getDayStart() + recurrencesBefore * occurrenceType.getValue());
+
+        } else {
+            return getFirstOccurrence();
         }
     }
 
+    /**
+     * @param occurrenceDay - The day of the occurrence.
+     * @return - The stored occurrence of that day if it was booked, otherwise a new occurrence which is not stored.
+     */
     @Override
     public TripOfferPartOccurrence getOrCreateOccurrence(int occurrenceDay) {
-        if (dayToOccurrenceMap.get(occurrenceDay) == null) {
-            dayToOccurrenceMap.put(occurrenceDay, new TripOfferPartOccurrence(this, departureTime, arrivalTime, occurrenceDay));
+        TripOfferPartOccurrence occurrence = dayToOccurrenceMap.get(occurrenceDay);
+        return occurrence != null
+                ? occurrence
+                : new TripOfferPartOccurrence(this, occurrenceDay);
+    }
+
+    /**
+     * Gets the occurrence of the given day to book seats on, storing it if nobody booked it before.
+     * @param occurrenceDay - The day of the occurrence.
+     * @return - The stored occurrence of that day.
+     */
+    public TripOfferPartOccurrence getOrStoreOccurrence(int occurrenceDay) {
+        return dayToOccurrenceMap.compute(occurrenceDay, (day, occurrence) ->
+                occurrence == null || occurrence.isEvicted()
+                        ? new TripOfferPartOccurrence(this, day)
+                        : occurrence);
+    }
+
+    /**
+     * Takes as many seats on this part's occurrences as are taken on the original part's occurrences of the same days.
+     * Only the seats are copied - the riders stay on the original.
+     * @param original - The part this part is a copy of.
+     */
+    void copyTakenSeatsFrom(TripOfferPart original) {
+        original.dayToOccurrenceMap.forEach((day, occurrence) -> {
+            int takenSeats = maxPassengerCapacity - occurrence.getSpacesLeft();
+            if (takenSeats > 0) {
+                getOrStoreOccurrence(day).tryReserveSeats(takenSeats);
+            }
+        });
+    }
+
+    /**
+     * Drops the stored occurrences which have no seats taken and arrived before the given minute.
+     * @param minute - The current time, in minutes (see TimeDay.toMinutes()).
+     */
+    public void evictEmptyOccurrencesBefore(int minute) {
+        dayToOccurrenceMap.values().removeIf(occurrence ->
+                occurrence.getArrivalMinute() < minute && occurrence.tryEvict());
+    }
+
+    /**
+     * @return - The number of occurrences departing from fromMinute until toMinute, both included.
+     */
+    public int getNumOfOccurrencesBetween(int fromMinute, int toMinute) {
+        int firstDay = getDayOfOccurrenceAfter(fromMinute, 0);
+        if (firstDay == NO_OCCURRENCE_DAY || getDepartureMinute(firstDay) > toMinute) {
+            return 0;
+        } else if (occurrenceType.equals(Recurrence.ONE_TIME)) {
+            return 1;
+        } else {
+            return (toMinute - getDepartureMinute(firstDay)) / (occurrenceType.getValue() * TimeDay.MINUTES_IN_DAY) + 1;
+        }
+    }
+
+    /**
+     * @return - The number of seats booked on the occurrences departing from fromMinute until toMinute, both included.
+     */
+    public int getNumOfBookedSeatsBetween(int fromMinute, int toMinute) {
+        int numOfBookedSeats = 0;
+        for (TripOfferPartOccurrence occurrence : dayToOccurrenceMap.values()) {
+            int departureMinute = occurrence.getDepartureMinute();
+            if (fromMinute <= departureMinute && departureMinute <= toMinute) {
+                numOfBookedSeats += maxPassengerCapacity - occurrence.getSpacesLeft();
+            }
+        }
+        return numOfBookedSeats;
+    }
+
+    public int getNumOfStoredOccurrences() {
+        return dayToOccurrenceMap.size();
+    }
+
+    public long getStoredOccurrencesSizeInBytes() {
+        long sizeInBytes = 0;
+        for (TripOfferPartOccurrence occurrence : dayToOccurrenceMap.values()) {
+            sizeInBytes += occurrence.getEstimatedSizeInBytes();
         }
-        return dayToOccurrenceMap.get(occurrenceDay);
+        return sizeInBytes;
+    }
+
+    /**
+     * The spaces left on the occurrence of the given day, without creating the occurrence - an occurrence that was
+     * never booked has no riders yet.
+     * @param occurrenceDay - The day of the occurrence.
+     * @return - The number of free seats on that day.
+     */
+    public int getSpacesLeft(int occurrenceDay) {
+        TripOfferPartOccurrence occurrence = dayToOccurrenceMap.get(occurrenceDay);
+        return occurrence == null ? maxPassengerCapacity : occurrence.getSpacesLeft();
     }
 
     public Stop getSourceStop() {
@@ -163,32 +349,34 @@ public class TripOfferPart implements Schedule, BasicTripOffer {
         return mainOffer;
     }
 
-    public boolean isCurrentlyHappening() {
-        return !TimeEngineBase.currentTime.getTime().isBefore(departureTime.getTime())
-                && !TimeEngineBase.currentTime.getTime().isAfter(arrivalTime.getTime())
-                && occurrenceType.isOnDay(getDayStart(), TimeEngineBase.currentTime.getDay());
+    /**
+     * @param minute - The time to check, in minutes (see TimeDay.toMinutes()).
+     * @return - true if an occurrence of the part has departed and not yet arrived at that minute.
+     */
+    public boolean isHappeningAt(int minute) {
+        int minutesSinceDeparture = occurrenceType.getMinutesSinceOccurrence(minute, departureMinute);
+        return minutesSinceDeparture != -1 && minutesSinceDeparture <= arrivalMinute - departureMinute;
     }
 
-    public boolean isCurrentlyDeparting() {
-        return TimeEngineBase.currentTime.getTime().equals(departureTime.getTime())
-                && occurrenceType.isOnDay(getDayStart(), TimeEngineBase.currentTime.getDay());
+    public boolean isDepartingAt(int minute) {
+        return occurrenceType.getMinutesSinceOccurrence(minute, departureMinute) == 0;
     }
 
-    public boolean isCurrentlyArriving() {
-        return TimeEngineBase.currentTime.getTime().equals(arrivalTime.getTime())
-                && occurrenceType.isOnDay(getDayStart(), TimeEngineBase.currentTime.getDay());
+    public boolean isArrivingAt(int minute) {
+        return occurrenceType.getMinutesSinceOccurrence(minute, arrivalMinute) == 0;
     }
 
 
     /**
-     * @return - a string of the details happening currently. Uses TransPoolData.currentTime.
+     * @param currentMinute - The current time of the map, in minutes (see TimeDay.toMinutes()).
+     * @return - a string of the details happening currently.
      * Used for displaying who is staying at which station currently.
      */
-    public String currentDetails() {
+    public String currentDetails(int currentMinute) {
         StringBuilder builder = new StringBuilder();
         builder.append("Driver: ").append(getTransPoolDriver().toString()).append("\n");
-        if (dayToOccurrenceMap.get(TimeEngineBase.currentTime.getDay()) != null) {
-            builder.append(dayToOccurrenceMap.get(TimeEngineBase.currentTime.getDay()));
+        if (dayToOccurrenceMap.get(TimeDay.toDay(currentMinute)) != null) {
+            builder.append(dayToOccurrenceMap.get(TimeDay.toDay(currentMinute)));
             builder.append("\n\n");
         } else {
             builder.append("Riding alone.\n\n");
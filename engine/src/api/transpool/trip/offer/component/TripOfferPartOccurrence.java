@@ -2,7 +2,6 @@ package api.transpool.trip.offer.component;
 
 import api.transpool.SingleMapEngine;
 import api.transpool.map.component.Stop;
-import api.transpool.time.TimeEngineBase;
 import api.transpool.time.component.Occurrence;
 import api.transpool.time.component.Recurrence;
 import api.transpool.time.component.TimeDay;
@@ -11,182 +10,196 @@ import api.transpool.user.account.TransPoolDriver;
 import api.transpool.user.account.TransPoolRider;
 import exception.parser.RideFullException;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A single occurrence of a trip offer part. Each trip offer part occurrence can occur on different days, and have
  * different riders. These objects are used for creating the route, and for storing the the information of a trip
  * on a single day, rather than the static trip offer.
+ * The occurrence only keeps its day and seats, everything else is read from its trip offer part. Its times are minutes
+ * (see TimeDay.toMinutes()) worked out from the part's times and the day, and a TimeDay is only built for showing them.
+ * The spaces left are a counter that is only changed with compare-and-set, so riders booking the occurrence at the
+ * same time never take the same seat (see SeatReservation). An empty occurrence being dropped from its part is marked
+ * as evicted the same way, so no seat can be taken on it after it is gone.
  */
 
 public class TripOfferPartOccurrence implements Occurrence, BasicTripOffer {
-    private TripOffer mainOffer;
+    //Every rider added to an occurrence takes up a single seat.
+    public static final int SEATS_PER_RIDER = 1;
+    //The spaces left of an occurrence which was dropped from its part's stored occurrences.
+    private static final int EVICTED = -1;
 
-    private int ID;
-    private TransPoolDriver transpoolDriver;
-    private int PPK;
-    private int maxPassengerCapacity;
-    private int tripPrice;
-    private double averageFuelConsumption;
-    private int tripDurationInMinutes;
+    //Rough sizes on a 64 bit JVM with compressed references: the occurrence with its riders list, and each rider
+    //reference in the list.
+    private static final int BASE_SIZE_IN_BYTES = 56;
+    private static final int RIDER_SIZE_IN_BYTES = 4;
 
-    private Stop sourceStop;
-    private Stop destinationStop;
+    private TripOfferPart tripOfferPart;
+    private int day;
 
-    private TimeDay departureTime;
-    private TimeDay arrivalTime;
-    private Recurrence occurrenceType;
-
-    private int spacesLeft;
+    private AtomicInteger spacesLeft;
     private List<Rider> riders;
 
-    public TripOfferPartOccurrence(TripOfferPart tripOfferPart, TimeDay departureTime, TimeDay arrivalTime, int day) {
-        this.mainOffer = tripOfferPart.getMainOffer();
-        this.riders = new ArrayList<>();
-        this.spacesLeft = tripOfferPart.getMaxPassengerCapacity();
-
-        this.departureTime = new TimeDay(departureTime);
-        this.arrivalTime = new TimeDay(arrivalTime);
-        setDay(day);
-
-        this.ID = tripOfferPart.getID();
-        this.transpoolDriver = tripOfferPart.getTransPoolDriver();
-        this.PPK = tripOfferPart.getPPK();
-        this.maxPassengerCapacity = tripOfferPart.getMaxPassengerCapacity();
-        this.tripPrice = tripOfferPart.getPrice();
-        this.averageFuelConsumption = tripOfferPart.getAverageFuelConsumption();
-        this.tripDurationInMinutes = tripOfferPart.getTripDurationInMinutes();
-
-        this.sourceStop = tripOfferPart.getSourceStop();
-        this.destinationStop = tripOfferPart.getDestinationStop();
-        this.occurrenceType = tripOfferPart.getRecurrences();
-    }
-
-    private void setDay(int day) {
-        departureTime.setDay(day);
-        arrivalTime.setDay(day);
+    public TripOfferPartOccurrence(TripOfferPart tripOfferPart, int day) {
+        this.tripOfferPart = tripOfferPart;
+        this.day = day;
+        this.riders = new CopyOnWriteArrayList<>();
+        this.spacesLeft = new AtomicInteger(tripOfferPart.getMaxPassengerCapacity());
     }
 
     @Override
     public int getID() {
-        return ID;
+        return tripOfferPart.getID();
     }
 
     @Override
     public TransPoolDriver getTransPoolDriver() {
-        return transpoolDriver;
+        return tripOfferPart.getTransPoolDriver();
     }
 
     @Override
     public int getPPK() {
-        return PPK;
+        return tripOfferPart.getPPK();
     }
 
     @Override
     public int getMaxPassengerCapacity() {
-        return maxPassengerCapacity;
+        return tripOfferPart.getMaxPassengerCapacity();
     }
 
     @Override
     public int getPrice() {
-        return tripPrice;
+        return tripOfferPart.getPrice();
     }
 
     @Override
     public double getAverageFuelConsumption() {
-        return averageFuelConsumption;
+        return tripOfferPart.getAverageFuelConsumption();
     }
 
     @Override
     public int getTripDurationInMinutes() {
-        return tripDurationInMinutes;
+        return tripOfferPart.getTripDurationInMinutes();
     }
 
     @Override
     public Stop getSourceStop() {
-        return sourceStop;
+        return tripOfferPart.getSourceStop();
     }
 
     @Override
     public Stop getDestinationStop() {
-        return destinationStop;
+        return tripOfferPart.getDestinationStop();
     }
 
     @Override
     public TimeDay getDepartureTime() {
-        return departureTime;
+        return TimeDay.fromMinutes(getDepartureMinute());
     }
 
     @Override
     public TimeDay getArrivalTime() {
-        return arrivalTime;
+        return TimeDay.fromMinutes(getArrivalMinute());
+    }
+
+    /**
+     * @return - The time the occurrence departs from the source stop, in minutes (see TimeDay.toMinutes()).
+     */
+    public int getDepartureMinute() {
+        return tripOfferPart.getDepartureMinute(day);
+    }
+
+    /**
+     * @return - The time the occurrence arrives at the destination stop, in minutes. A part that arrives after
+     * midnight keeps arriving on the day after.
+     */
+    public int getArrivalMinute() {
+        return tripOfferPart.getArrivalMinute(day);
     }
 
     @Override
     public Recurrence getRecurrences() {
-        return occurrenceType;
+        return tripOfferPart.getRecurrences();
     }
 
     @Override
     public boolean isBelongToMap(SingleMapEngine map) {
-        return map.getTripOfferPart(mainOffer.getID(), ID) != null;
+        return tripOfferPart.isBelongToMap(map);
     }
 
     @Override
     public TimeDay getOccurrenceStart() {
-        return departureTime;
+        return getDepartureTime();
     }
 
     @Override
     public TimeDay getOccurrenceEnd() {
-        return arrivalTime;
+        return getArrivalTime();
+    }
+
+    @Override
+    public int getOccurrenceStartMinute() {
+        return getDepartureMinute();
+    }
+
+    @Override
+    public int getOccurrenceEndMinute() {
+        return getArrivalMinute();
     }
 
     @Override
     public int getOccurrenceDay() {
-        return departureTime.getDay();
+        return day;
     }
 
     @Override
     public boolean isAfter(TimeDay timeDay) {
-        return departureTime.isAfter(timeDay);
+        return getDepartureMinute() > timeDay.toMinutes();
     }
 
     @Override
     public boolean isAfter(Occurrence other) {
-        return !this.getOccurrenceStart().isBefore(other.getOccurrenceEnd());
+        return getOccurrenceStartMinute() >= other.getOccurrenceEndMinute();
     }
 
     @Override
     public boolean isBefore(TimeDay timeDay) {
-        return arrivalTime.isBefore(timeDay);
+        return getArrivalMinute() < timeDay.toMinutes();
     }
 
     @Override
     public boolean isBefore(Occurrence other) {
-        return !this.getOccurrenceEnd().isAfter(other.getOccurrenceStart());
+        return getOccurrenceEndMinute() <= other.getOccurrenceStartMinute();
     }
 
     @Override
-    public boolean isOccurring() {
-        return TimeEngineBase.currentTime.isInRange(departureTime, arrivalTime);
+    public boolean isOccurring(int minute) {
+        return getDepartureMinute() <= minute && minute <= getArrivalMinute();
     }
 
     @Override
-    public boolean isStarting() {
-        return TimeEngineBase.currentTime.getTime().equals(departureTime.getTime())
-                && departureTime.getDay() == TimeEngineBase.currentTime.getDay();
+    public boolean isStarting(int minute) {
+        return minute == getDepartureMinute();
     }
 
     @Override
-    public boolean isEnding() {
-        return TimeEngineBase.currentTime.getTime().equals(arrivalTime.getTime())
-                && arrivalTime.getDay() == TimeEngineBase.currentTime.getDay();
+    public boolean isEnding(int minute) {
+        return minute == getArrivalMinute();
+    }
+
+    public TripOfferPart getTripOfferPart() {
+        return tripOfferPart;
     }
 
+    /**
+     * @return - The seats not yet taken. Seats reserved for a rider who wasn't added yet are already taken.
+     */
     public int getSpacesLeft() {
-        return spacesLeft;
+        int spaces = spacesLeft.get();
+        return spaces == EVICTED ? getMaxPassengerCapacity() : spaces;
     }
 
     public List<Rider> getRiders() {
@@ -194,20 +207,85 @@ public class TripOfferPartOccurrence implements Occurrence, BasicTripOffer {
     }
 
     public void addRider(Rider rider) throws RideFullException {
-        if (spacesLeft > 0) {
-            riders.add(rider);
-            spacesLeft--;
-        } else {
+        if (!tryReserveSeats(SEATS_PER_RIDER)) {
             throw new RideFullException();
         }
+        addReservedRider(rider);
+    }
+
+    /**
+     * Takes seats on the occurrence if it has enough left.
+     * @param seats - The number of seats to take.
+     * @return - true if the seats were taken, false if there weren't enough or the occurrence was evicted.
+     */
+    boolean tryReserveSeats(int seats) {
+        while (true) {
+            int spaces = spacesLeft.get();
+            if (spaces < seats) {
+                return false;
+            } else if (spacesLeft.compareAndSet(spaces, spaces - seats)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back seats taken by tryReserveSeats().
+     */
+    void releaseSeats(int seats) {
+        spacesLeft.addAndGet(seats);
+    }
+
+    /**
+     * Adds a rider whose seat was already taken by tryReserveSeats().
+     */
+    void addReservedRider(Rider rider) {
+        riders.add(rider);
+    }
+
+    /**
+     * Marks the occurrence as evicted if none of its seats are taken.
+     * @return - true if the occurrence was evicted, false if a seat on it was taken.
+     */
+    boolean tryEvict() {
+        return spacesLeft.compareAndSet(getMaxPassengerCapacity(), EVICTED);
+    }
+
+    boolean isEvicted() {
+        return spacesLeft.get() == EVICTED;
     }
 
     public void updateFather(TransPoolRider transPoolRider) {
-        mainOffer.updateAfterMatch(transPoolRider, this);
+        tripOfferPart.getMainOffer().updateAfterMatch(transPoolRider, this);
+    }
+
+    /**
+     * @return - An estimate of the memory the occurrence takes, in bytes.
+     */
+    public long getEstimatedSizeInBytes() {
+        return BASE_SIZE_IN_BYTES + (long) riders.size() * RIDER_SIZE_IN_BYTES;
     }
 
     public String getTripOfferOccurrenceDescription() {
-        return "Depart from " + sourceStop + " on " + departureTime + " with " + transpoolDriver
-                + " and arrive on " + arrivalTime + " at " + destinationStop;
+        return "Depart from " + getSourceStop() + " on " + getDepartureTime() + " with " + getTransPoolDriver()
+                + " and arrive on " + getArrivalTime() + " at " + getDestinationStop();
+    }
+
+    /**
+     * Occurrences of the same part on the same day are equal, whether they were booked or only found by a search.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TripOfferPartOccurrence)) return false;
+        TripOfferPartOccurrence that = (TripOfferPartOccurrence) o;
+        return day == that.day &&
+                tripOfferPart.getMainOffer().getID() == that.tripOfferPart.getMainOffer().getID() &&
+                tripOfferPart.equals(that.tripOfferPart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tripOfferPart.getMainOffer().getID(), tripOfferPart, day);
     }
 }
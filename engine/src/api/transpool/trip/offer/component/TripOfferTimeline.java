@@ -0,0 +1,178 @@
+package api.transpool.trip.offer.component;
+
+import api.transpool.time.component.Recurrence;
+import api.transpool.time.component.TimeDay;
+import api.transpool.time.component.TimeInterval;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The departures and arrivals of the trip offers' occurrences, by minute (see TimeDay.toMinutes()).
+ * An offer can only start or stop happening on one of its events, so moving the time - forwards or backwards - only
+ * needs to look at the offers with an event between the old time and the new one, rather than at every offer.
+ * An offer is still happening on the minute it arrives, so its arrival event is on the minute after.
+ * The events of recurring offers are put on the timeline a window of days at a time, as the time gets to them.
+ * The events more than a day before the current time are dropped, as the clock steps back at most a day at a time
+ * (see TimeInterval). If the time still goes back past them, they are put on the timeline again.
+ */
+public class TripOfferTimeline {
+
+    public static final int NO_EVENT = -1;
+    private static final int HORIZON_WINDOW_DAYS = 31;
+    private static final int RETAINED_MINUTES = TimeInterval.ONE_DAY.getMinutes();
+
+    private List<TripOffer> tripOffers;
+    private NavigableMap<Integer, List<TripOffer>> events;
+    //The events of all the occurrences departing before this day are on the timeline.
+    private int horizonDay;
+    //The events from this minute on are on the timeline, the ones before it may have been dropped.
+    private int firstMinute;
+    private int currentMinute;
+
+    /**
+     * @param currentMinute - The time the timeline starts at, in minutes.
+     */
+    public TripOfferTimeline(int currentMinute) {
+        this.tripOffers = new ArrayList<>();
+        this.events = new TreeMap<>();
+        this.horizonDay = TimeDay.toDay(currentMinute) + HORIZON_WINDOW_DAYS;
+        this.firstMinute = 0;
+        this.currentMinute = currentMinute;
+    }
+
+    public void add(TripOffer tripOffer) {
+        tripOffers.add(tripOffer);
+        addEvents(tripOffer, getFirstOccurrenceDayFrom(tripOffer, firstMinute), horizonDay);
+    }
+
+    public int getCurrentMinute() {
+        return currentMinute;
+    }
+
+    /**
+     * Moves the timeline to the given minute.
+     * @param minute - The new time, in minutes. May be before the current time.
+     * @return - The offers with an event between the old time and the new one - the only offers which may have started
+     * or stopped happening.
+     */
+    public Set<TripOffer> moveTo(int minute) {
+        int fromMinute = Math.min(currentMinute, minute);
+        int toMinute = Math.max(currentMinute, minute);
+        restoreEventsFrom(fromMinute);
+        extendHorizon(TimeDay.toDay(toMinute) + 1);
+
+        Set<TripOffer> crossedOffers = new LinkedHashSet<>();
+        events.subMap(fromMinute, false, toMinute, true)
+                .values()
+                .forEach(crossedOffers::addAll);
+        currentMinute = minute;
+        dropEventsBefore(currentMinute - RETAINED_MINUTES);
+        return crossedOffers;
+    }
+
+    /**
+     * Finds the next minute any offer departs or arrives on, extending the timeline as far as needed.
+     * @param minute - The event is after this minute.
+     * @param untilMinute - The latest minute to look until.
+     * @return - The minute of the next event, NO_EVENT if there is none until untilMinute.
+     */
+    public int getNextEventMinute(int minute, int untilMinute) {
+        restoreEventsFrom(minute);
+        extendHorizon(TimeDay.toDay(minute) + 1);
+        while (true) {
+            //Every event before the start of the horizon day is already on the timeline.
+            int horizonMinute = TimeDay.toMinutesAtDayStart(horizonDay);
+            Integer nextEventMinute = events.higherKey(minute);
+            if (nextEventMinute != null && nextEventMinute < horizonMinute) {
+                return nextEventMinute <= untilMinute ? nextEventMinute : NO_EVENT;
+            } else if (horizonMinute > untilMinute) {
+                return NO_EVENT;
+            }
+            extendHorizon(horizonDay + 1);
+        }
+    }
+
+    /**
+     * @return - The number of departures and arrivals on the minute.
+     */
+    public int getNumOfEventsAt(int minute) {
+        restoreEventsFrom(minute);
+        extendHorizon(TimeDay.toDay(minute) + 1);
+        List<TripOffer> minuteEvents = events.get(minute);
+        return minuteEvents == null ? 0 : minuteEvents.size();
+    }
+
+    private void dropEventsBefore(int minute) {
+        if (minute > firstMinute) {
+            events.headMap(minute).clear();
+            firstMinute = minute;
+        }
+    }
+
+    /**
+     * Puts the dropped events from the minute on back on the timeline, by putting every event from the minute until
+     * the horizon on it again.
+     */
+    private void restoreEventsFrom(int minute) {
+        if (minute < firstMinute) {
+            events.clear();
+            for (TripOffer tripOffer : tripOffers) {
+                addEvents(tripOffer, getFirstOccurrenceDayFrom(tripOffer, minute), horizonDay);
+            }
+            firstMinute = minute;
+        }
+    }
+
+    /**
+     * @return - The day of the earliest occurrence of the offer which may have an event from the minute on - an
+     * occurrence which departed before the minute is still happening until it arrives.
+     */
+    private int getFirstOccurrenceDayFrom(TripOffer tripOffer, int minute) {
+        int durationInDays = (tripOffer.getArrivalMinute() + 1 - tripOffer.getDepartureMinute()) / TimeDay.MINUTES_IN_DAY;
+        return Math.max(tripOffer.getRoute().get(0).getDayStart(), TimeDay.toDay(minute) - durationInDays - 1);
+    }
+
+    private void extendHorizon(int day) {
+        while (horizonDay < day) {
+            int newHorizonDay = horizonDay + HORIZON_WINDOW_DAYS;
+            for (TripOffer tripOffer : tripOffers) {
+                addEvents(tripOffer, horizonDay, newHorizonDay);
+            }
+            horizonDay = newHorizonDay;
+        }
+    }
+
+    /**
+     * Puts the events of the offer's occurrences departing from fromDay until (not including) toDay on the timeline.
+     */
+    private void addEvents(TripOffer tripOffer, int fromDay, int toDay) {
+        int dayStart = tripOffer.getRoute().get(0).getDayStart();
+        Recurrence recurrence = tripOffer.getRecurrences();
+        if (recurrence.equals(Recurrence.ONE_TIME)) {
+            if (fromDay <= dayStart && dayStart < toDay) {
+                addOccurrenceEvents(tripOffer, 0);
+            }
+            return;
+        }
+
+        int recurrencesBefore = Math.max(0, (fromDay - dayStart + recurrence.getValue() - 1) / recurrence.getValue());
+        for (int day = dayStart + recurrencesBefore * recurrence.getValue(); day < toDay; day += recurrence.getValue()) {
+            addOccurrenceEvents(tripOffer, day - dayStart);
+        }
+    }
+
+    private void addOccurrenceEvents(TripOffer tripOffer, int daysAfterStart) {
+        int offsetInMinutes = daysAfterStart * TimeDay.MINUTES_IN_DAY;
+        addEvent(tripOffer.getDepartureMinute() + offsetInMinutes, tripOffer);
+        addEvent(tripOffer.getArrivalMinute() + offsetInMinutes + 1, tripOffer);
+    }
+
+    private void addEvent(int minute, TripOffer tripOffer) {
+        events.computeIfAbsent(minute, eventMinute -> new ArrayList<>()).add(tripOffer);
+    }
+}
@@ -22,6 +22,11 @@ public interface TripRequestsEngine {
 
     void addTripRequest(TripRequest tripRequest);
 
+    /**
+     * @return - A new trip request ID, unique across all maps.
+     */
+    int createTripRequestID();
+
     void addMatchedRequest(MatchedTripRequest matchedTripRequest);
 
     Map<Integer, TripRequest> getAllTripRequests();
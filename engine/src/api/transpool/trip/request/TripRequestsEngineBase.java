@@ -1,5 +1,7 @@
 package api.transpool.trip.request;
 
+import api.transpool.id.IDAllocator;
+import api.transpool.trip.request.component.BasicTripRequestData;
 import api.transpool.trip.request.component.MatchedTripRequest;
 import api.transpool.trip.request.component.MatchedTripRequestDTO;
 import api.transpool.trip.request.component.TripRequest;
@@ -19,10 +21,12 @@ public class TripRequestsEngineBase implements TripRequestsEngine {
 
     private Map<Integer, TripRequest> allTripRequests;
     private Map<Integer, MatchedTripRequest> allMatchedTripRequests;
+    private IDAllocator tripRequestIDs;
 
     public TripRequestsEngineBase() {
         this.allTripRequests = new HashMap<>();
         this.allMatchedTripRequests = new HashMap<>();
+        this.tripRequestIDs = BasicTripRequestData.ID_SPACE.createAllocator();
     }
 
     @Override
@@ -64,6 +68,11 @@ public class TripRequestsEngineBase implements TripRequestsEngine {
         allTripRequests.put(tripRequest.getID(), tripRequest);
     }
 
+    @Override
+    public int createTripRequestID() {
+        return tripRequestIDs.nextID();
+    }
+
     @Override
     public int getNumOfTripRequests() {
         return allTripRequests.size() + allMatchedTripRequests.size();
@@ -1,6 +1,7 @@
 package api.transpool.trip.request.component;
 
 import api.transpool.SingleMapEngine;
+import api.transpool.id.IDSpace;
 import api.transpool.map.BasicMap;
 import api.transpool.map.component.Stop;
 import api.transpool.user.account.TransPoolRider;
@@ -14,14 +15,18 @@ import java.util.Objects;
  */
 public abstract class BasicTripRequestData implements BasicTripRequest {
 
-    private static int IDGenerator = 20000;
+    public static final IDSpace ID_SPACE = new IDSpace(20000, 1);
+
     protected int requestID;
     protected TransPoolRider transpoolRider;
     protected Stop sourceStop;
     protected Stop destinationStop;
 
-    public BasicTripRequestData(BasicMap map, String riderName, String sourceStopName, String destinationStopName) throws TransPoolDataException {
-        this.requestID = IDGenerator++;
+    /**
+     * @param map - The map of the request, which hands out its ID.
+     */
+    public BasicTripRequestData(SingleMapEngine map, String riderName, String sourceStopName, String destinationStopName) throws TransPoolDataException {
+        this.requestID = map.createTripRequestID();
         this.transpoolRider = new TransPoolRider(riderName);
         this.sourceStop = initializeStop(map, sourceStopName);
         this.destinationStop = initializeStop(map, destinationStopName);
@@ -1,11 +1,13 @@
 package api.transpool.trip.request.component;
 
 import api.transpool.time.component.TimeDay;
+import api.transpool.trip.offer.component.SeatReservation;
 import api.transpool.trip.offer.component.TripOfferPartOccurrence;
 import api.transpool.trip.matching.component.PossibleRoute;
 import api.transpool.user.account.TransPoolDriver;
 import exception.parser.RideFullException;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -25,9 +27,20 @@ public class MatchedTripRequest extends BasicTripRequestData {
     private boolean isArrival;
 
     public MatchedTripRequest(TripRequest tripRequestToMatch, PossibleRoute possibleRoute) throws RideFullException {
+        //Every leg is reserved before any is booked, so a full leg leaves the whole route unbooked.
+        this(tripRequestToMatch, possibleRoute,
+                SeatReservation.reserve(possibleRoute.getRoute(), TripOfferPartOccurrence.SEATS_PER_RIDER));
+    }
+
+    /**
+     * Books the route on seats which were already reserved for it, such as the seats of a SeatHold.
+     * @param reservation - The reservation of the route's seats, confirmed for the rider.
+     */
+    public MatchedTripRequest(TripRequest tripRequestToMatch, PossibleRoute possibleRoute,
+                              SeatReservation reservation) {
         super(tripRequestToMatch);
         this.isArrival = tripRequestToMatch.isTimeOfArrival();
-        this.route = possibleRoute.getRoute();
+        this.route = new ArrayList<>();
         this.tripPrice = possibleRoute.getTotalPrice();
         this.expectedTimeOfArrival = possibleRoute.getArrivalTime();
         this.timeOfDeparture = possibleRoute.getDepartureTime();
@@ -35,12 +48,11 @@ public class MatchedTripRequest extends BasicTripRequestData {
         this.tripOfferIDs = new HashSet<>();
         this.transpoolDrivers = new HashSet<>();
 
-        for (TripOfferPartOccurrence tripOfferPart : possibleRoute.getRoute()) {
-            tripOfferIDs.add(tripOfferPart.getID());
-            transpoolDrivers.add(tripOfferPart.getTransPoolDriver());
-
-            tripOfferPart.addRider(transpoolRider);
-            tripOfferPart.updateFather(transpoolRider);
+        for (TripOfferPartOccurrence bookedOccurrence : reservation.confirm(transpoolRider)) {
+            tripOfferIDs.add(bookedOccurrence.getID());
+            transpoolDrivers.add(bookedOccurrence.getTransPoolDriver());
+            bookedOccurrence.updateFather(transpoolRider);
+            route.add(bookedOccurrence);
         }
     }
 
@@ -1,6 +1,6 @@
 package api.transpool.trip.request.component;
 
-import api.transpool.map.BasicMap;
+import api.transpool.SingleMapEngine;
 import api.transpool.time.component.TimeDay;
 import exception.time.InvalidDayStartException;
 import exception.parser.TransPoolDataException;
@@ -14,7 +14,7 @@ public class TripRequestData extends BasicTripRequestData implements TripRequest
     private boolean isTimeOfArrival;
     private boolean isContinuous;
 
-    public TripRequestData(BasicMap map, String riderName, String sourceStop, String destinationStop, int day,
+    public TripRequestData(SingleMapEngine map, String riderName, String sourceStop, String destinationStop, int day,
                            LocalTime requestTime, boolean isTimeOfArrival, boolean isContinuous) throws TransPoolDataException {
         super(map, riderName, sourceStop, destinationStop);
         this.requestTime = new TimeDay(requestTime, day);
@@ -49,7 +49,7 @@ public class TripRequestData extends BasicTripRequestData implements TripRequest
 
     @Override
     public String toString() {
-        return transpoolRider.getUsername() + " - " + transpoolRider.getID();
+        return transpoolRider.getUsername() + " - " + requestID;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package api.transpool.user;
 
+import api.transpool.user.account.TransPoolDriver;
+import api.transpool.user.account.TransPoolRider;
 import api.transpool.user.account.TransPoolUserAccount;
 
 import java.util.Map;
@@ -7,6 +9,16 @@ import java.util.Set;
 
 public interface UserEngine {
     void addUser(TransPoolUserAccount username);
+
+    /**
+     * @return - A new rider account with the engine's next rider ID. The account is not added to the engine.
+     */
+    TransPoolRider createRider(String username);
+
+    /**
+     * @return - A new driver account with the engine's next driver ID. The account is not added to the engine.
+     */
+    TransPoolDriver createDriver(String username);
     void removeUser(TransPoolUserAccount username);
     Map<String, TransPoolUserAccount> getUsers();
     boolean isUserExists(String username);
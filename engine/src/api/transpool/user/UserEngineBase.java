@@ -1,5 +1,8 @@
 package api.transpool.user;
 
+import api.transpool.id.IDAllocator;
+import api.transpool.user.account.TransPoolDriver;
+import api.transpool.user.account.TransPoolRider;
 import api.transpool.user.account.TransPoolUserAccount;
 
 import java.util.*;
@@ -7,9 +10,23 @@ import java.util.*;
 public class UserEngineBase implements UserEngine {
 
     private Map<String, TransPoolUserAccount> userAccounts;
+    private IDAllocator riderIDs;
+    private IDAllocator driverIDs;
 
     public UserEngineBase() {
         userAccounts = new HashMap<>();
+        riderIDs = TransPoolRider.ID_SPACE.createAllocator();
+        driverIDs = TransPoolDriver.ID_SPACE.createAllocator();
+    }
+
+    @Override
+    public TransPoolRider createRider(String username) {
+        return new TransPoolRider(riderIDs.nextID(), username);
+    }
+
+    @Override
+    public TransPoolDriver createDriver(String username) {
+        return new TransPoolDriver(driverIDs.nextID(), username);
     }
 
     @Override
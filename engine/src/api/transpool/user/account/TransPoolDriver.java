@@ -1,6 +1,7 @@
 package api.transpool.user.account;
 
 import api.transpool.SingleMapEngine;
+import api.transpool.id.IDSpace;
 import api.transpool.trip.offer.component.TripOffer;
 import api.transpool.trip.offer.component.TripOfferDTO;
 import api.transpool.trip.request.component.MatchedTripRequestPart;
@@ -18,7 +19,7 @@ import java.util.stream.Collectors;
  */
 public class TransPoolDriver extends TransPoolUserAccount implements Feedbackable, Driver {
 
-    private static int IDGenerator = 30000;
+    public static final IDSpace ID_SPACE = new IDSpace(30000, 1);
 
     private List<TripOffer> tripOffers;
     private List<MatchedTripRequestPart> riders;
@@ -27,13 +28,16 @@ public class TransPoolDriver extends TransPoolUserAccount implements Feedbackabl
     private double averageRating;
     private double totalRating;
 
-    public TransPoolDriver(String username) {
+    /**
+     * @param ID - The account ID, given by the user engine.
+     */
+    public TransPoolDriver(int ID, String username) {
         super(username);
         this.riders = new ArrayList<>();
         this.feedbacks = new ArrayList<>();
         this.tripOffers = new ArrayList<>();
 
-        this.setID(IDGenerator++);
+        this.setID(ID);
         this.feedbacks = new ArrayList<>();
         this.averageRating = 0;
         this.totalRating = 0;
@@ -74,7 +78,7 @@ public class TransPoolDriver extends TransPoolUserAccount implements Feedbackabl
     }
 
     @Override
-    public void addRider(MatchedTripRequestPart matchedPart) {
+    public synchronized void addRider(MatchedTripRequestPart matchedPart) {
         riders.add(matchedPart);
     }
 
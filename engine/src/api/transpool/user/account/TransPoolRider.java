@@ -1,6 +1,7 @@
 package api.transpool.user.account;
 
 import api.transpool.SingleMapEngine;
+import api.transpool.id.IDSpace;
 import api.transpool.trip.request.component.MatchedTripRequest;
 import api.transpool.trip.request.component.MatchedTripRequestDTO;
 import api.transpool.trip.request.component.TripRequest;
@@ -19,13 +20,16 @@ import java.util.stream.Collectors;
 
 public class TransPoolRider extends TransPoolUserAccount implements Rider, Feedbacker {
 
-    private static int IDGenerator = 40000;
+    public static final IDSpace ID_SPACE = new IDSpace(40000, 1);
 
     private List<TripRequest> tripRequests;
     private List<MatchedTripRequest> matchedTripRequests;
 
     private Set<Feedbackable> feedbackables;
 
+    /**
+     * A rider known only by name, such as the rider of a trip request, with no account ID.
+     */
     public TransPoolRider(String username) {
         super(username);
         this.tripRequests = new ArrayList<>();
@@ -35,7 +39,14 @@ public class TransPoolRider extends TransPoolUserAccount implements Rider, Feedb
         this.tripRequests = new ArrayList<>();
         this.matchedTripRequests = new ArrayList<>();
         this.feedbackables = new HashSet<>();
-        setID(IDGenerator++);
+    }
+
+    /**
+     * @param ID - The account ID, given by the user engine.
+     */
+    public TransPoolRider(int ID, String username) {
+        this(username);
+        setID(ID);
     }
 
     public TransPoolRider(TransPoolRider other) {
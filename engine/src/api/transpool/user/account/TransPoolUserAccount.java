@@ -1,6 +1,5 @@
 package api.transpool.user.account;
 
-import api.transpool.time.TimeEngineBase;
 import api.transpool.time.component.TimeDay;
 import api.transpool.user.component.balance.Balance;
 import api.transpool.user.component.balance.Transaction;
@@ -61,10 +60,11 @@ public abstract class TransPoolUserAccount implements User, Balance {
     /**
      * Adds amount into the balance and creates a new transaction for the transaction history.
      * @param amount - Amount to deposit
+     * @param timeDeposited - The time of the deposit.
      */
     @Override
-    public void depositCredit(double amount) {
-        this.transactionHistory.add(new Transaction(TimeEngineBase.currentTime, Transaction.Type.CREDIT_CHARGE, amount, balance));
+    public void depositCredit(double amount, TimeDay timeDeposited) {
+        this.transactionHistory.add(new Transaction(timeDeposited, Transaction.Type.CREDIT_CHARGE, amount, balance));
         this.balance += amount;
     }
 
@@ -9,7 +9,7 @@ public interface Balance {
 
     void receiveCredit(double amount, TimeDay timeReceived);
     void transferCredit(double amount, Balance other, TimeDay timeTransferred);
-    void depositCredit(double amount);
+    void depositCredit(double amount, TimeDay timeDeposited);
 
     Collection<Transaction> getTransactionHistory();
     Collection<Transaction> getLastThreeTransactions();
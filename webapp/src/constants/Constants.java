@@ -20,13 +20,23 @@ public class Constants {
     public static final String IS_CONTINUOUS = "is-continuous";
     public static final String ID_OF_REQUEST_TO_MATCH = "request-to-match";
     public static final String NUM_OF_RESULTS = "num-of-results";
+    public static final String MATCHING_ALGORITHM = "matching-algorithm";
     public static final String POSSIBLE_ROUTES = "possible-routes";
     public static final String POSSIBLE_ROUTE_ID = "possible-route-id";
+    public static final String HOLD_SEATS = "hold-seats";
+    public static final String SEAT_HOLD = "seat-hold";
+    public static final String SIMULATION_DURATION = "duration";
+    public static final String NUM_OF_SYNTHETIC_REQUESTS = "num-of-requests";
+    public static final String SIMULATION_SEED = "seed";
+    public static final int MAX_SIMULATION_DURATION = 31 * 24 * 60;
+    public static final int MAX_SYNTHETIC_REQUESTS = 10000;
     public static final String FEEDBACKEE = "feedbackee";
     public static final String RATING = "rating";
     public static final String COMMENT = "comment";
     public static final String FEEDBACK_VERSION = "feedback-version";
     public static final String RIDERS_VERSION = "riders-version";
+    public static final String MIN_MAP_SIZE = "min-map-size";
+    public static final String MAX_MAP_SIZE = "max-map-size";
 
     public final static String HOME_URL = "home.html";
     public final static String SIGNUP_URL = "signup.html";
@@ -1,5 +1,6 @@
 package servlets;
 
+import api.MapsEngine;
 import constants.Constants;
 import api.transpool.user.UserEngine;
 import api.transpool.user.account.TransPoolUserAccount;
@@ -30,7 +31,8 @@ public class ChargeServlet extends HttpServlet {
         } else {
             String amountToAddFromParameter = req.getParameter(Constants.AMOUNT_TO_ADD);
             double amountToAdd = Double.parseDouble(amountToAddFromParameter);
-            currentUser.depositCredit(amountToAdd);
+            MapsEngine mapsEngine = ServletUtils.getMapEngine(getServletContext());
+            currentUser.depositCredit(amountToAdd, mapsEngine.getLatestTime());
             resp.sendRedirect(Constants.ACCOUNT_URL);
         }
 
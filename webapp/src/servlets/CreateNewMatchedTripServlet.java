@@ -1,6 +1,10 @@
 package servlets;
 
 import api.MapsEngine;
+import api.transpool.SingleMapEngine;
+import api.transpool.trip.hold.component.SeatHold;
+import api.transpool.trip.offer.component.SeatReservation;
+import api.transpool.trip.offer.component.TripOfferPartOccurrence;
 import constants.Constants;
 import api.transpool.trip.matching.component.PossibleRoute;
 import api.transpool.trip.matching.component.PossibleRoutesList;
@@ -25,6 +29,8 @@ import java.io.PrintWriter;
  * Parameters: map-name: the map associated with the match.
  *             possible-route-id: the index of the possible route in the PossibleRoutesList created by the matching engine
  *             request-id: the ID of the request to match.
+ * If the seats of the chosen route were held when it was found, the held seats are booked. The seats held on the
+ * other routes' legs are released.
  */
 @WebServlet(name = "CreateNewMatchedTripServlet", urlPatterns = {"/create-match"})
 public class CreateNewMatchedTripServlet extends HttpServlet {
@@ -46,13 +52,28 @@ public class CreateNewMatchedTripServlet extends HttpServlet {
             if (possibleRoutes != null) {
                 TripRequest requestToMatch = rider.getRequest(chosenTripRequestId);
                 PossibleRoute chosenRoute = possibleRoutes.get(chosenTripOfferIndex);
+                SingleMapEngine map = mapsEngine.getMap(mapNameFromParameter);
+                SeatReservation heldSeats = claimSeatHold(req, map, chosenRoute);
+                SeatReservation seats = null;
                 try {
-
-                    MatchedTripRequest matchedTripRequest = new MatchedTripRequest(requestToMatch, chosenRoute);
+                    if (requestToMatch == null) {
+                        out.print("No such trip request!");
+                        return;
+                    }
+                    seats = heldSeats != null
+                            ? heldSeats
+                            : SeatReservation.reserve(chosenRoute.getRoute(), TripOfferPartOccurrence.SEATS_PER_RIDER);
+                    MatchedTripRequest matchedTripRequest = new MatchedTripRequest(requestToMatch, chosenRoute, seats);
                     mapsEngine.addNewMatchedTripRequest(matchedTripRequest, rider, mapNameFromParameter);
                     out.print("Ride matched successfully!");
                 } catch (RideFullException e) {
                     out.print(e.getMessage());
+                } finally {
+                    //Seats that weren't booked would stay taken for good - a claimed hold is out of the timer wheel.
+                    SeatReservation unbookedSeats = seats != null ? seats : heldSeats;
+                    if (unbookedSeats != null && !unbookedSeats.isSettled()) {
+                        map.releaseSeats(unbookedSeats);
+                    }
                     out.flush();
                 }
             } else {
@@ -63,6 +84,19 @@ public class CreateNewMatchedTripServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Takes the held seats of the chosen route, and releases the seats held on the other routes' legs.
+     * @return - The reservation of the chosen route's seats, null if they weren't held or the hold expired.
+     */
+    private SeatReservation claimSeatHold(HttpServletRequest req, SingleMapEngine map, PossibleRoute chosenRoute) {
+        SeatHold seatHold = SessionUtils.getSeatHold(req);
+        if (seatHold == null) {
+            return null;
+        }
+        req.getSession(false).removeAttribute(Constants.SEAT_HOLD);
+        return map.claimSeatHold(seatHold, chosenRoute);
+    }
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         processRequest(req, resp);
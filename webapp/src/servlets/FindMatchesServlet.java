@@ -4,9 +4,13 @@ import api.MapsEngine;
 import com.google.gson.Gson;
 import constants.Constants;
 import api.transpool.SingleMapEngine;
+import api.transpool.trip.hold.component.SeatHold;
+import api.transpool.trip.matching.component.MatchingAlgorithm;
 import api.transpool.trip.matching.component.PossibleRoutesList;
 import exception.parser.NoResultsFoundException;
+import utils.ParameterUtils;
 import utils.ServletUtils;
+import utils.SessionUtils;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -21,7 +25,11 @@ import java.io.PrintWriter;
  * Parameters: map-name: The associated map
  *             request-id: The ID of the request to match
  *             num-of-results: The number of results to display
- * The servlet stored the PossibleRoutesList in the users session.
+ *             matching-algorithm: The algorithm to match with (optional, earliest arrival by default)
+ *             hold-seats: Hold a seat on the routes found until the user books one or the hold expires (optional)
+ * The servlet stored the PossibleRoutesList in the users session, with the seat hold if seats were held. The hold
+ * takes a single seat on every leg, even if several of the routes share it.
+ * The hold left from an earlier search of the same session is released.
  */
 @WebServlet(name = "FindMatchesServlet", urlPatterns = {"/find-a-match"})
 public class FindMatchesServlet extends HttpServlet {
@@ -35,12 +43,21 @@ public class FindMatchesServlet extends HttpServlet {
 
             int idOfRequestToMatch = Integer.parseInt(req.getParameter(Constants.ID_OF_REQUEST_TO_MATCH));
             int numOfResults = Integer.parseInt(req.getParameter(Constants.NUM_OF_RESULTS));
+            MatchingAlgorithm algorithm = ParameterUtils.getMatchingAlgorithmFromParameter(req.getParameter(Constants.MATCHING_ALGORITHM));
+            boolean isHoldingSeats = ParameterUtils.getBooleanParameter(req.getParameter(Constants.HOLD_SEATS));
 
+            releaseSeatHold(req, map);
             try {
-                PossibleRoutesList possibleRoutes = map.getAllPossibleRoutes(idOfRequestToMatch, numOfResults);
+                PossibleRoutesList possibleRoutes = map.getAllPossibleRoutes(idOfRequestToMatch, numOfResults, algorithm);
 
                 //Saving the possible routes list in the session.
                 req.getSession(false).setAttribute(Constants.POSSIBLE_ROUTES, possibleRoutes);
+                if (isHoldingSeats) {
+                    SeatHold seatHold = map.holdSeats(possibleRoutes);
+                    if (seatHold != null) {
+                        req.getSession(false).setAttribute(Constants.SEAT_HOLD, seatHold);
+                    }
+                }
 
                 String possibleRoutesJson = new Gson().toJson(possibleRoutes.getDetails());
                 String idOfRequestToMatchJson = new Gson().toJson(idOfRequestToMatch);
@@ -56,6 +73,14 @@ public class FindMatchesServlet extends HttpServlet {
         }
     }
 
+    private void releaseSeatHold(HttpServletRequest req, SingleMapEngine map) {
+        SeatHold seatHold = SessionUtils.getSeatHold(req);
+        if (seatHold != null) {
+            map.releaseSeatHold(seatHold);
+            req.getSession(false).removeAttribute(Constants.SEAT_HOLD);
+        }
+    }
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         processRequest(req, resp);
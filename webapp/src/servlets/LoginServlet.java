@@ -2,8 +2,6 @@ package servlets;
 
 import constants.Constants;
 import api.transpool.user.UserEngine;
-import api.transpool.user.account.TransPoolDriver;
-import api.transpool.user.account.TransPoolRider;
 import utils.ServletUtils;
 import utils.SessionUtils;
 
@@ -43,9 +41,9 @@ public class LoginServlet extends HttpServlet {
                             out.flush();
                         } else {
                             if (userTypeFromParameter.equals(Constants.RIDER)) {
-                                userEngine.addUser(new TransPoolRider(userNameFromParameter));
+                                userEngine.addUser(userEngine.createRider(userNameFromParameter));
                             } else if (userTypeFromParameter.equals(Constants.DRIVER)) {
-                                userEngine.addUser(new TransPoolDriver(userNameFromParameter));
+                                userEngine.addUser(userEngine.createDriver(userNameFromParameter));
                             } else {
                                 out.print("User must be a rider or a driver.");
                                 out.flush();
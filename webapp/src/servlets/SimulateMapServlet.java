@@ -0,0 +1,81 @@
+package servlets;
+
+import api.MapsEngine;
+import api.transpool.SingleMapEngine;
+import api.transpool.simulation.MapSimulation;
+import api.transpool.simulation.SimulationReport;
+import api.transpool.trip.matching.component.MatchingAlgorithm;
+import com.google.gson.Gson;
+import constants.Constants;
+import exception.parser.TransPoolDataException;
+import utils.ParameterUtils;
+import utils.ServletUtils;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Runs a simulation of a map from its current time, and returns the report of the run (see MapSimulation).
+ * The simulation runs on a copy of the map, so the map itself doesn't change.
+ * Parameters: map-name: The map to simulate
+ *             duration: The number of minutes to simulate, up to Constants.MAX_SIMULATION_DURATION
+ *             num-of-requests: The number of synthetic trip requests to make during the run, up to
+ *                              Constants.MAX_SYNTHETIC_REQUESTS (optional, none by default)
+ *             matching-algorithm: The algorithm to match the requests with (optional, earliest arrival by default)
+ *             seed: The seed of the synthetic requests (optional, 0 by default)
+ */
+@WebServlet(name = "SimulateMapServlet", urlPatterns = {"/simulate-map"})
+public class SimulateMapServlet extends HttpServlet {
+
+    private void processRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("text/html");
+        try (PrintWriter out = resp.getWriter()) {
+            MapsEngine mapsEngine = ServletUtils.getMapEngine(getServletContext());
+            String mapNameFromParameter = req.getParameter(Constants.MAP_NAME);
+            SingleMapEngine map = mapNameFromParameter == null ? null : mapsEngine.getMap(mapNameFromParameter);
+            MatchingAlgorithm algorithm = ParameterUtils.getMatchingAlgorithmFromParameter(req.getParameter(Constants.MATCHING_ALGORITHM));
+
+            try {
+                int durationInMinutes = ParameterUtils.getIntParameter(
+                        req.getParameter(Constants.SIMULATION_DURATION), 0);
+                int numOfSyntheticRequests = ParameterUtils.getIntParameter(
+                        req.getParameter(Constants.NUM_OF_SYNTHETIC_REQUESTS), 0);
+                long seed = ParameterUtils.getIntParameter(req.getParameter(Constants.SIMULATION_SEED), 0);
+
+                if (map == null) {
+                    out.print("No such map!");
+                } else if (durationInMinutes <= 0 || durationInMinutes > Constants.MAX_SIMULATION_DURATION) {
+                    out.print("The duration must be between 1 and " + Constants.MAX_SIMULATION_DURATION + " minutes.");
+                } else if (numOfSyntheticRequests < 0 || numOfSyntheticRequests > Constants.MAX_SYNTHETIC_REQUESTS) {
+                    out.print("The number of requests must be between 0 and " + Constants.MAX_SYNTHETIC_REQUESTS + ".");
+                } else {
+                    SimulationReport report = new MapSimulation(map, algorithm, numOfSyntheticRequests, seed)
+                            .run(durationInMinutes);
+                    resp.setContentType("application/json");
+                    out.print(new Gson().toJson(report));
+                }
+            } catch (NumberFormatException e) {
+                out.print("The duration, number of requests and seed must be whole numbers.");
+            } catch (TransPoolDataException e) {
+                out.print(e.getMessage());
+            } finally {
+                out.flush();
+            }
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        processRequest(req, resp);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        processRequest(req, resp);
+    }
+}
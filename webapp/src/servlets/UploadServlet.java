@@ -2,8 +2,8 @@ package servlets;
 
 import api.MapsEngine;
 import constants.Constants;
-import api.generated.TransPool;
 import api.transpool.TransPoolMap;
+import api.transpool.map.StreamingMapParser;
 import exception.FileTypeException;
 import exception.parser.TransPoolDataException;
 import utils.ServletUtils;
@@ -16,14 +16,20 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.Part;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 
+/**
+ * Uploads a new map.
+ * The map's name is reserved before the file is parsed, so maps with different names are parsed and built in parallel,
+ * and a second upload of the same name is turned down right away.
+ * The file is streamed into the map as it's read (see StreamingMapParser), and files past the in memory threshold are
+ * kept on disk by the container, so large maps don't have to fit in memory twice.
+ */
 @WebServlet("/upload")
-@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 1024 * 1024 * 5, maxRequestSize = 1024 * 1024 * 5 * 5)
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 1024 * 1024 * 100, maxRequestSize = 1024 * 1024 * 101)
 public class UploadServlet extends HttpServlet {
 
     private void processRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
@@ -35,25 +41,29 @@ public class UploadServlet extends HttpServlet {
         String uploaderNameFromSession = SessionUtils.getUsername(req);
         Part part = req.getPart(Constants.MAP_FILE);
 
-        synchronized (this) {
-            if (mapsEngine.isMapExists(mapNameFromParameter)) {
-                out.print("A map with this name already exists.");
-                out.flush();
-            } else if (part != null) {
-                try {
-                    loadFile(mapsEngine, part, mapNameFromParameter, uploaderNameFromSession);
-                    out.print(Constants.HOME_URL);     //On success.
-                } catch (TransPoolDataException | FileTypeException e) {
-                    out.print(e.getMessage());
-                } catch (JAXBException e) {
-                    out.print("Error parsing map.");
-                } finally {
-                    out.flush();
-                }
-            } else {
-                out.print("File cannot be empty.");
+        if (mapNameFromParameter == null || mapNameFromParameter.trim().isEmpty()) {
+            out.print("Map name cannot be empty.");
+            out.flush();
+        } else if (!mapsEngine.reserveMapName(mapNameFromParameter)) {
+            out.print("A map with this name already exists.");
+            out.flush();
+        } else if (part != null) {
+            try {
+                loadFile(mapsEngine, part, mapNameFromParameter, uploaderNameFromSession);
+                out.print(Constants.HOME_URL);     //On success.
+            } catch (TransPoolDataException | FileTypeException e) {
+                out.print(e.getMessage());
+            } catch (XMLStreamException e) {
+                out.print("Error parsing map.");
+            } finally {
+                //Frees the name if the map wasn't published.
+                mapsEngine.releaseMapName(mapNameFromParameter);
                 out.flush();
             }
+        } else {
+            mapsEngine.releaseMapName(mapNameFromParameter);
+            out.print("File cannot be empty.");
+            out.flush();
         }
     }
 
@@ -68,14 +78,14 @@ public class UploadServlet extends HttpServlet {
         processRequest(req, resp);
     }
 
-    private void loadFile(MapsEngine mapsEngine, Part file, String mapName, String uploaderName) throws JAXBException,
-            TransPoolDataException, IOException, FileTypeException {
+    private void loadFile(MapsEngine mapsEngine, Part file, String mapName, String uploaderName)
+            throws XMLStreamException, TransPoolDataException, IOException, FileTypeException {
 
         if (file.getContentType().equals("text/xml")) {
-            JAXBContext jaxbContext = JAXBContext.newInstance(TransPool.class);
-            Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-            TransPool JAXBData = (TransPool) jaxbUnmarshaller.unmarshal(file.getInputStream());
-            mapsEngine.addMap(new TransPoolMap(mapName, uploaderName, JAXBData));
+            try (InputStream fileStream = file.getInputStream()) {
+                mapsEngine.publishMap(new TransPoolMap(mapName, uploaderName, StreamingMapParser.parse(fileStream,
+                        mapsEngine.getMapSizeLimits())));
+            }
         } else {
             throw new FileTypeException();
         }
@@ -1,6 +1,7 @@
 package utils;
 
 import api.transpool.time.component.Recurrence;
+import api.transpool.trip.matching.component.MatchingAlgorithm;
 
 import java.time.LocalTime;
 import java.util.Arrays;
@@ -23,7 +24,15 @@ public class ParameterUtils {
         return Recurrence.getRecurrence(recurrence);
     }
 
+    public static MatchingAlgorithm getMatchingAlgorithmFromParameter(String algorithm) {
+        return MatchingAlgorithm.getMatchingAlgorithm(algorithm);
+    }
+
     public static Boolean getBooleanParameter(String parameter) {
         return parameter != null;
     }
+
+    public static int getIntParameter(String parameter, int defaultValue) {
+        return parameter == null || parameter.trim().isEmpty() ? defaultValue : Integer.parseInt(parameter.trim());
+    }
 }
@@ -2,8 +2,10 @@ package utils;
 
 import api.MapsEngine;
 import api.MapsEngineBase;
+import api.transpool.map.MapSizeLimits;
 import api.transpool.user.UserEngine;
 import api.transpool.user.UserEngineBase;
+import constants.Constants;
 
 import javax.servlet.ServletContext;
 
@@ -28,10 +30,23 @@ public class ServletUtils {
     public static MapsEngine getMapEngine(ServletContext servletContext) {
         synchronized (mapEngineLock) {
             if (servletContext.getAttribute(MAP_ENGINE_ATTRIBUTE_NAME) == null) {
-                servletContext.setAttribute(MAP_ENGINE_ATTRIBUTE_NAME, new MapsEngineBase());
+                MapsEngine mapsEngine = new MapsEngineBase();
+                mapsEngine.setMapSizeLimits(getMapSizeLimits(servletContext));
+                servletContext.setAttribute(MAP_ENGINE_ATTRIBUTE_NAME, mapsEngine);
             }
         }
         return (MapsEngine) servletContext.getAttribute(MAP_ENGINE_ATTRIBUTE_NAME);
     }
 
+    /**
+     * Reads the map size limits from the context parameters in web.xml. A limit that isn't set keeps its default.
+     */
+    private static MapSizeLimits getMapSizeLimits(ServletContext servletContext) {
+        String minMapSize = servletContext.getInitParameter(Constants.MIN_MAP_SIZE);
+        String maxMapSize = servletContext.getInitParameter(Constants.MAX_MAP_SIZE);
+        return new MapSizeLimits(
+                minMapSize == null ? MapSizeLimits.DEFAULT.getMinSize() : Integer.parseInt(minMapSize.trim()),
+                maxMapSize == null ? MapSizeLimits.DEFAULT.getMaxSize() : Integer.parseInt(maxMapSize.trim()));
+    }
+
 }
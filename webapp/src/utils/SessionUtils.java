@@ -1,6 +1,7 @@
 package utils;
 
 import constants.Constants;
+import api.transpool.trip.hold.component.SeatHold;
 import api.transpool.trip.matching.component.PossibleRoutesList;
 
 import javax.servlet.http.HttpServletRequest;
@@ -34,6 +35,23 @@ public class SessionUtils {
         }
     }
 
+    /**
+     * @return - The seat hold of the possible routes in the session, null if the routes were found without holding
+     * seats or none could be held.
+     */
+    public static SeatHold getSeatHold(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        Object sessionAttribute = null;
+        if (session != null) {
+            sessionAttribute = session.getAttribute(Constants.SEAT_HOLD);
+        }
+        if (sessionAttribute != null) {
+            return (SeatHold) sessionAttribute;
+        } else {
+            return null;
+        }
+    }
+
     public static String getUserType(HttpServletRequest request) {
         HttpSession session = request.getSession(false);
         Object sessionAttribute = null;